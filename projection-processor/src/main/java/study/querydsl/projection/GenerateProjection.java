@@ -0,0 +1,20 @@
+package study.querydsl.projection;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 이 생성자를 직접 호출하는 {@code <DTO이름>Projection} 클래스를 같은 패키지에 생성한다.
+ * <pre>
+ * queryFactory.select(new MemberDtoProjection(member.username, member.age))
+ * </pre>
+ * {@code @QueryProjection}과 달리 DTO가 querydsl에 의존하지 않는다. (컴파일 시점에만 필요, 클래스 파일에 남지 않음)
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.CONSTRUCTOR)
+public @interface GenerateProjection {
+}
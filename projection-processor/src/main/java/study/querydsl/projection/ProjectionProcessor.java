@@ -0,0 +1,175 @@
+package study.querydsl.projection;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link GenerateProjection} 생성자마다 {@code FactoryExpressionBase}를 상속한 프로젝션 클래스를 생성한다.
+ * newInstance는 {@code new Dto((String) args[0], (Integer) args[1])} 처럼 생성자를 직접 호출한다.
+ * (Projections.bean/fields는 행마다 setter/필드 리플렉션, Projections.constructor는 Constructor.newInstance)
+ * <p>
+ * Gradle isolating 프로세서다. (META-INF/gradle/incremental.annotation.processors)
+ * 생성 파일마다 DTO 하나만 원본 요소로 넘기고, 그 DTO 밖의 정보로 생성 여부를 정하지 않는다.
+ * compileQuerydsl의 프로세서 경로(querydsl 설정)도 compileClasspath를 상속해서 이 프로세서를 포함하므로
+ * 그 태스크에서는 -Aprojection.skip=true로 생성하지 않는다. (build.gradle, 생성은 compileJava에서만)
+ */
+@SupportedAnnotationTypes("study.querydsl.projection.GenerateProjection")
+@SupportedOptions(ProjectionProcessor.SKIP_OPTION)
+public class ProjectionProcessor extends AbstractProcessor {
+
+    static final String SKIP_OPTION = "projection.skip";
+
+    private static final String SUFFIX = "Projection";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (Boolean.parseBoolean(processingEnv.getOptions().get(SKIP_OPTION))) {
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateProjection.class)) {
+            ExecutableElement constructor = (ExecutableElement) element;
+            TypeElement dto = (TypeElement) constructor.getEnclosingElement();
+            if (!validate(constructor, dto)) {
+                continue;
+            }
+            try {
+                generate(constructor, dto);
+            } catch (IOException e) {
+                error(constructor, "프로젝션 클래스 생성 실패: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private boolean validate(ExecutableElement constructor, TypeElement dto) {
+        if (constructor.getModifiers().contains(Modifier.PRIVATE)) {
+            error(constructor, "@GenerateProjection 생성자는 private일 수 없습니다.");
+            return false;
+        }
+        if (dto.getNestingKind() != NestingKind.TOP_LEVEL || dto.getKind() != ElementKind.CLASS
+                || dto.getModifiers().contains(Modifier.ABSTRACT) || !dto.getTypeParameters().isEmpty()) {
+            error(constructor, "@GenerateProjection은 제네릭이 아닌 최상위 클래스의 생성자에만 쓸 수 있습니다.");
+            return false;
+        }
+        return true;
+    }
+
+    private void generate(ExecutableElement constructor, TypeElement dto) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(dto).getQualifiedName().toString();
+        String dtoName = dto.getSimpleName().toString();
+        String className = dtoName + SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+
+        List<String> names = new ArrayList<>();
+        List<String> expressionTypes = new ArrayList<>();
+        List<String> casts = new ArrayList<>();
+        for (VariableElement parameter : constructor.getParameters()) {
+            TypeMirror type = parameter.asType();
+            names.add(parameter.getSimpleName().toString());
+            expressionTypes.add(boxed(type).toString());
+            casts.add(cast(type));
+        }
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, dto);
+        try (Writer writer = file.openWriter(); PrintWriter out = new PrintWriter(writer)) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("import com.querydsl.core.types.Expression;");
+            out.println("import com.querydsl.core.types.FactoryExpressionBase;");
+            out.println("import com.querydsl.core.types.Visitor;");
+            out.println();
+            out.println("import javax.annotation.processing.Generated;");
+            out.println("import java.util.Arrays;");
+            out.println("import java.util.Collections;");
+            out.println("import java.util.List;");
+            out.println();
+            out.println("/**");
+            out.println(" * {@link " + dtoName + "} 생성자를 직접 호출하는 프로젝션 (" + ProjectionProcessor.class.getSimpleName() + "가 생성)");
+            out.println(" */");
+            out.println("@Generated(\"" + ProjectionProcessor.class.getName() + "\")");
+            out.println("public class " + className + " extends FactoryExpressionBase<" + dtoName + "> {");
+            out.println();
+            out.println("    private static final long serialVersionUID = 1L;");
+            out.println();
+            out.println("    private final List<Expression<?>> args;");
+            out.println();
+            out.print("    public " + className + "(");
+            for (int i = 0; i < names.size(); i++) {
+                out.print((i > 0 ? ", " : "") + "Expression<" + expressionTypes.get(i) + "> " + names.get(i));
+            }
+            out.println(") {");
+            out.println("        super(" + dtoName + ".class);");
+            out.println("        this.args = Collections.unmodifiableList(Arrays.<Expression<?>>asList(" + String.join(", ", names) + "));");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public List<Expression<?>> getArgs() {");
+            out.println("        return args;");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    @SuppressWarnings(\"unchecked\")");
+            out.println("    public " + dtoName + " newInstance(Object... a) {");
+            out.print("        return new " + dtoName + "(");
+            for (int i = 0; i < casts.size(); i++) {
+                out.print((i > 0 ? ", " : "") + casts.get(i).replace("#", "a[" + i + "]"));
+            }
+            out.println(");");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public <R, C> R accept(Visitor<R, C> v, C context) {");
+            out.println("        return v.visit(this, context);");
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    private TypeMirror boxed(TypeMirror type) {
+        return type.getKind().isPrimitive()
+                ? processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).asType()
+                : type;
+    }
+
+    //#: 인자 자리, 원시 타입은 null이면 기본값 (sql null -> 0, false)
+    private String cast(TypeMirror type) {
+        if (!type.getKind().isPrimitive()) {
+            return "(" + type + ") #";
+        }
+        String boxed = boxed(type).toString();
+        String zero = type.getKind() == TypeKind.BOOLEAN ? "false" : type.getKind() == TypeKind.CHAR ? "'\\0'" : "0";
+        return "# == null ? " + zero + " : (" + boxed + ") #";
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,171 @@
+package study.querydsl.projection;
+
+import com.querydsl.core.types.FactoryExpression;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 샘플 DTO를 ProjectionProcessor와 함께 컴파일해서 생성된 프로젝션과 오류 메시지를 확인한다.
+ */
+class ProjectionProcessorTest {
+
+    @TempDir
+    Path out;
+
+    @Test
+    public void primitiveNullMapsToZero() throws Exception {
+        Compilation compilation = compile("sample.Sample",
+                "package sample;\n"
+                        + "import study.querydsl.projection.GenerateProjection;\n"
+                        + "public class Sample {\n"
+                        + "    public final String name; public final int age; public final boolean active;\n"
+                        + "    @GenerateProjection\n"
+                        + "    public Sample(String name, int age, boolean active) {\n"
+                        + "        this.name = name; this.age = age; this.active = active;\n"
+                        + "    }\n"
+                        + "}\n");
+        assertThat(compilation.errors()).isEmpty();
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{out.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> projectionType = loader.loadClass("sample.SampleProjection");
+            FactoryExpression<?> projection =
+                    (FactoryExpression<?>) projectionType.getConstructors()[0].newInstance(new Object[3]);
+            Object sample = projection.newInstance("member1", null, null); //sql null
+
+            Class<?> sampleType = loader.loadClass("sample.Sample");
+            assertThat(projection.getType()).isEqualTo(sampleType);
+            assertThat(sampleType.getField("name").get(sample)).isEqualTo("member1");
+            assertThat(sampleType.getField("age").getInt(sample)).isZero();
+            assertThat(sampleType.getField("active").getBoolean(sample)).isFalse();
+            assertThat(sampleType.getField("age").getInt(projection.newInstance("member2", 20, true))).isEqualTo(20);
+        }
+    }
+
+    @Test
+    public void rejectsPrivateConstructor() {
+        Compilation compilation = compile("sample.PrivateDto",
+                "package sample;\n"
+                        + "import study.querydsl.projection.GenerateProjection;\n"
+                        + "public class PrivateDto {\n"
+                        + "    @GenerateProjection\n"
+                        + "    private PrivateDto(String name) { }\n"
+                        + "}\n");
+
+        assertThat(compilation.errors()).containsExactly("@GenerateProjection 생성자는 private일 수 없습니다.");
+    }
+
+    @Test
+    public void rejectsNestedClass() {
+        Compilation compilation = compile("sample.Outer",
+                "package sample;\n"
+                        + "import study.querydsl.projection.GenerateProjection;\n"
+                        + "public class Outer {\n"
+                        + "    public static class NestedDto {\n"
+                        + "        @GenerateProjection\n"
+                        + "        public NestedDto(String name) { }\n"
+                        + "    }\n"
+                        + "}\n");
+
+        assertThat(compilation.errors())
+                .containsExactly("@GenerateProjection은 제네릭이 아닌 최상위 클래스의 생성자에만 쓸 수 있습니다.");
+    }
+
+    @Test
+    public void rejectsGenericClass() {
+        Compilation compilation = compile("sample.GenericDto",
+                "package sample;\n"
+                        + "import study.querydsl.projection.GenerateProjection;\n"
+                        + "public class GenericDto<T> {\n"
+                        + "    @GenerateProjection\n"
+                        + "    public GenericDto(T value) { }\n"
+                        + "}\n");
+
+        assertThat(compilation.errors())
+                .containsExactly("@GenerateProjection은 제네릭이 아닌 최상위 클래스의 생성자에만 쓸 수 있습니다.");
+    }
+
+    @Test
+    public void skipOptionGeneratesNothing() { //compileQuerydsl
+        Compilation compilation = compile("sample.Skipped",
+                "package sample;\n"
+                        + "import study.querydsl.projection.GenerateProjection;\n"
+                        + "public class Skipped {\n"
+                        + "    @GenerateProjection\n"
+                        + "    public Skipped(String name) { }\n"
+                        + "}\n",
+                "-A" + ProjectionProcessor.SKIP_OPTION + "=true");
+
+        assertThat(compilation.errors()).isEmpty();
+        assertThat(Files.exists(out.resolve("sample/SkippedProjection.class"))).isFalse();
+    }
+
+    private Compilation compile(String className, String source, String... options) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> arguments = new ArrayList<>(List.of(
+                "-classpath", System.getProperty("java.class.path"),
+                "-d", out.toString(),
+                "-s", out.toString()));
+        arguments.addAll(List.of(options));
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, arguments, null,
+                    List.of(new Source(className, source)));
+            task.setProcessors(List.of(new ProjectionProcessor()));
+            task.call();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new Compilation(diagnostics.getDiagnostics());
+    }
+
+    private static final class Compilation {
+
+        private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+
+        private Compilation(List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+            this.diagnostics = diagnostics;
+        }
+
+        List<String> errors() {
+            return diagnostics.stream()
+                    .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                    .map(d -> d.getMessage(null))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static final class Source extends SimpleJavaFileObject {
+
+        private final String code;
+
+        private Source(String className, String code) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+}
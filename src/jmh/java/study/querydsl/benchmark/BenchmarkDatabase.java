@@ -0,0 +1,87 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.TeamJpaRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 임베디드 H2(mem)에 rowCount 만큼 회원을 넣어둔 스프링 컨텍스트
+ * 측정에 영향을 주지 않도록 sql 로그, p6spy, 2차 캐시는 끈다.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    private static final int TEAM_SIZE = 100;
+
+    @Param({"1000", "10000"})
+    public int rowCount;
+
+    protected ConfigurableApplicationContext context;
+    protected EntityManagerFactory emf;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties())
+                .run();
+        emf = context.getBean(EntityManagerFactory.class);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    protected String[] properties() {
+        return new String[]{
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "spring.jpa.properties.hibernate.show_sql=false",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "spring.jpa.properties.hibernate.use_sql_comments=false",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                "logging.level.org.hibernate.SQL=warn",
+                "logging.level.org.hibernate.type=warn",
+                "decorator.datasource.enabled=false"
+        };
+    }
+
+    private void seed() {
+        TeamJpaRepository teamJpaRepository = context.getBean(TeamJpaRepository.class);
+        MemberJpaRepository memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        tx.executeWithoutResult(status -> {
+            List<Team> teams = new ArrayList<>();
+            for (int i = 0; i < Math.max(1, rowCount / TEAM_SIZE); i++) {
+                teams.add(new Team("team" + i));
+            }
+            teamJpaRepository.saveAll(teams, 500);
+
+            List<Member> members = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                members.add(new Member("member" + i, i % 100, teams.get(i % teams.size())));
+            }
+            memberJpaRepository.saveAll(members, 500);
+        });
+    }
+}
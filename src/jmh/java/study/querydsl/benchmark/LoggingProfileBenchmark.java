@@ -0,0 +1,73 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 기본 설정(show_sql, format_sql, sql 주석, bind trace 로그, p6spy) vs perf 프로파일 처리량 비교
+ * ./gradlew jmh -Pjmh.includes=LoggingProfileBenchmark
+ * (default는 콘솔 출력이 많으므로 결과는 jmh 리포트 파일로 본다)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LoggingProfileBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ProfileDatabase extends BenchmarkDatabase {
+
+        @Param({"default", "perf"}) //default: application.yml만 사용
+        public String profile;
+
+        //2차 캐시만 끄고 로그 관련 설정은 프로파일에 맡긴다.
+        @Override
+        protected String[] properties() {
+            return new String[]{
+                    "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                    "spring.profiles.active=" + profile,
+                    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                    "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+            };
+        }
+    }
+
+    @Benchmark
+    public Member findById(ProfileDatabase db) {
+        return query(db, em -> em.find(Member.class, 1L + (System.nanoTime() % db.rowCount)));
+    }
+
+    @Benchmark
+    public List<?> searchByAge(ProfileDatabase db) {
+        return query(db, em -> new JPAQueryFactory(em)
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .where(member.age.eq(10), member.username.startsWith("member1"))
+                .fetch());
+    }
+
+    private static <T> T query(ProfileDatabase db, Function<EntityManager, T> query) {
+        EntityManager em = db.emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            T result = query.apply(em);
+            em.getTransaction().commit();
+            return result;
+        } finally {
+            em.close();
+        }
+    }
+}
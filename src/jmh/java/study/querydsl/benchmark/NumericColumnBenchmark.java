@@ -0,0 +1,59 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import study.querydsl.support.ColumnarFetch;
+import study.querydsl.support.NumericColumns;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 숫자 컬럼 조회: List&lt;Integer&gt;, List&lt;Tuple&gt; vs int[], NumericColumns
+ * gc.alloc.rate.norm(할당량/op)을 비교한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NumericColumnBenchmark {
+
+    @Benchmark
+    public List<Integer> agesAsList(BenchmarkDatabase db) {
+        return query(db, queryFactory -> queryFactory.select(member.age).from(member).fetch());
+    }
+
+    @Benchmark
+    public int[] agesAsArray(BenchmarkDatabase db) {
+        return query(db, queryFactory -> ColumnarFetch.fetchInts(queryFactory.select(member.age).from(member)));
+    }
+
+    @Benchmark
+    public List<Tuple> teamAgesAsTuples(BenchmarkDatabase db) {
+        return query(db, queryFactory -> queryFactory.select(member.team.id, member.age).from(member).fetch());
+    }
+
+    @Benchmark
+    public NumericColumns teamAgesAsColumns(BenchmarkDatabase db) {
+        return query(db, queryFactory -> ColumnarFetch.fetchColumns(
+                queryFactory.select(member.team.id, member.age).from(member)));
+    }
+
+    private static <T> T query(BenchmarkDatabase db, Function<JPAQueryFactory, T> work) {
+        EntityManager em = db.emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            T result = work.apply(new JPAQueryFactory(em));
+            em.getTransaction().commit();
+            return result;
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchCondition;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동시 검색(MemberRepositoryCustom.serch) 처리량 vs 커넥션 풀 크기
+ * 쓰레드 수(16)보다 풀이 작으면 커넥션 대기 시간이 처리량을 깎는다.
+ * ./gradlew jmh -Pjmh.includes=PoolSizeBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class PoolSizeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class PooledDatabase extends BenchmarkDatabase {
+
+        @Param({"2", "4", "8", "16"})
+        public int poolSize;
+
+        @Param({"0", "256"})
+        public int statementCacheSize;
+
+        MemberRepository memberRepository;
+
+        @Override
+        protected String[] properties() {
+            String[] properties = super.properties();
+            String[] pooled = Arrays.copyOf(properties, properties.length + 4);
+            pooled[properties.length] = "querydsl.jdbc.pool-size=" + poolSize;
+            pooled[properties.length + 1] = "querydsl.jdbc.statement-cache-size=" + statementCacheSize;
+            pooled[properties.length + 2] = "querydsl.jdbc.connection-timeout=60s";
+            pooled[properties.length + 3] = "querydsl.metrics.enabled=false";
+            return pooled;
+        }
+
+        @Setup(Level.Trial)
+        public void repository() {
+            memberRepository = context.getBean(MemberRepository.class);
+        }
+    }
+
+    @Benchmark
+    public List<MemberDto> searchByAge(PooledDatabase db) {
+        int ageGoe = ThreadLocalRandom.current().nextInt(90);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageGoe + 5);
+        return db.memberRepository.serch(condition);
+    }
+
+    @Benchmark
+    public List<MemberDto> searchByTeam(PooledDatabase db) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team" + ThreadLocalRandom.current().nextInt(10));
+        condition.setAgeGoe(50);
+        return db.memberRepository.serch(condition);
+    }
+}
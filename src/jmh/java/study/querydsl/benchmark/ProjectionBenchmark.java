@@ -0,0 +1,117 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.infra.Blackhole;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberDtoProjection;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.entity.Member;
+import study.querydsl.support.QueryCount;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * DTO 조회 방식(Projections.bean/fields/constructor, @QueryProjection, @GenerateProjection, Tuple)과
+ * 지연 로딩 vs 페치 조인 비교
+ * 매 호출마다 새 EntityManager를 사용한다. (영속성 컨텍스트가 쌓이지 않도록)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProjectionBenchmark {
+
+    @Benchmark
+    public List<MemberDto> bean(BenchmarkDatabase db, StatementCounter counter) {
+        return query(db, counter, queryFactory -> queryFactory
+                .select(Projections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDto> fields(BenchmarkDatabase db, StatementCounter counter) {
+        return query(db, counter, queryFactory -> queryFactory
+                .select(Projections.fields(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDto> constructor(BenchmarkDatabase db, StatementCounter counter) {
+        return query(db, counter, queryFactory -> queryFactory
+                .select(Projections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDto> queryProjection(BenchmarkDatabase db, StatementCounter counter) {
+        return query(db, counter, queryFactory -> queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDto> generatedProjection(BenchmarkDatabase db, StatementCounter counter) {
+        return query(db, counter, queryFactory -> queryFactory
+                .select(new MemberDtoProjection(member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<Tuple> tuple(BenchmarkDatabase db, StatementCounter counter) {
+        return query(db, counter, queryFactory -> queryFactory
+                .select(member.username, member.age)
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public void entityLazyTeam(BenchmarkDatabase db, StatementCounter counter, Blackhole bh) {
+        query(db, counter, queryFactory -> {
+            List<Member> members = queryFactory.selectFrom(member).fetch();
+            for (Member m : members) {
+                bh.consume(m.getTeam().getName()); //프록시 초기화 (default_batch_fetch_size 만큼 in절로 묶임)
+            }
+            return members;
+        });
+    }
+
+    @Benchmark
+    public void entityFetchJoinTeam(BenchmarkDatabase db, StatementCounter counter, Blackhole bh) {
+        query(db, counter, queryFactory -> {
+            List<Member> members = queryFactory.selectFrom(member).join(member.team, team).fetchJoin().fetch();
+            for (Member m : members) {
+                bh.consume(m.getTeam().getName());
+            }
+            return members;
+        });
+    }
+
+    private <T> T query(BenchmarkDatabase db, StatementCounter counter, Function<JPAQueryFactory, T> work) {
+        EntityManager em = db.emf.createEntityManager();
+        QueryCount count = counter.start();
+        try {
+            em.getTransaction().begin();
+            T result = work.apply(new JPAQueryFactory(em));
+            em.getTransaction().commit();
+            return result;
+        } finally {
+            counter.stop(count);
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.FlushMode;
+import org.hibernate.annotations.QueryHints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 대량 엔티티 조회 + 커밋(flush)
+ * managed: 엔티티마다 스냅샷 생성, 커밋 시 전체 변경 감지
+ * readOnly: 스냅샷 x, 변경 감지 x -> gc.alloc.rate.norm(할당량/op) 비교
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadOnlyQueryBenchmark {
+
+    @Benchmark
+    public int managed(BenchmarkDatabase db) {
+        return load(db, false);
+    }
+
+    @Benchmark
+    public int readOnly(BenchmarkDatabase db) {
+        return load(db, true);
+    }
+
+    private int load(BenchmarkDatabase db, boolean readOnly) {
+        EntityManager em = db.emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Member> members = new JPAQueryFactory(em)
+                    .selectFrom(member)
+                    .setHint(QueryHints.READ_ONLY, readOnly)
+                    .setHint(QueryHints.FLUSH_MODE, readOnly ? FlushMode.MANUAL : FlushMode.AUTO)
+                    .fetch();
+            em.getTransaction().commit();
+            return members.size();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.support.QueryCount;
+import study.querydsl.support.QueryCountHolder;
+
+/**
+ * 벤치마크 결과에 sql 실행 횟수를 같이 출력한다. (EVENTS: 반복 단위 합계)
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class StatementCounter {
+
+    public long statements;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        statements = 0;
+    }
+
+    QueryCount start() {
+        return QueryCountHolder.start();
+    }
+
+    void stop(QueryCount count) {
+        QueryCountHolder.stop(count);
+        statements += count.getTotal();
+    }
+}
@@ -0,0 +1,36 @@
+package study.querydsl.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.support.BoundedQueryExecutor;
+
+@Configuration
+public class AsyncQueryConfig {
+
+    //동시 실행 수는 커넥션 풀 크기에 맞춘다. (더 많아도 커넥션을 기다리기만 한다)
+    @Bean
+    public BoundedQueryExecutor memberQueryExecutor(
+            @Value("${querydsl.async.pool-size:${querydsl.jdbc.pool-size:${spring.datasource.hikari.maximum-pool-size:10}}}") int poolSize,
+            @Value("${querydsl.async.queue-capacity:100}") int queueCapacity,
+            @Value("${querydsl.async.virtual-threads:false}") boolean virtualThreads) {
+        return virtualThreads
+                ? BoundedQueryExecutor.virtualThreads(poolSize, queueCapacity)
+                : BoundedQueryExecutor.platformThreads(poolSize, queueCapacity);
+    }
+
+    //파티션 스캔 전용, 기본은 커넥션 풀의 절반까지만 쓴다.
+    //느린 sink로 길어진 스캔이 memberQueryExecutor(비동기 조회)의 쓰레드와 커넥션을 모두 잡지 않도록 분리한다.
+    @Bean
+    public BoundedQueryExecutor memberScanExecutor(
+            @Value("${querydsl.jdbc.pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+            @Value("${querydsl.scan.max-concurrency:0}") int maxConcurrency,
+            @Value("${querydsl.scan.queue-capacity:100}") int queueCapacity,
+            @Value("${querydsl.async.virtual-threads:false}") boolean virtualThreads) {
+        int concurrency = maxConcurrency > 0 ? Math.min(maxConcurrency, poolSize - 1) : poolSize / 2;
+        concurrency = Math.max(1, concurrency);
+        return virtualThreads
+                ? BoundedQueryExecutor.virtualThreads("member-scan", concurrency, queueCapacity)
+                : BoundedQueryExecutor.platformThreads("member-scan", concurrency, queueCapacity);
+    }
+}
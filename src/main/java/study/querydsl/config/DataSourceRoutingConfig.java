@@ -0,0 +1,46 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import study.querydsl.support.ReplicaRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * querydsl.datasource.replica.jdbc-url이 설정되면 읽기 전용 트랜잭션을 replica로 보낸다.
+ * 설정이 없으면 스프링 부트 기본 DataSource(spring.datasource) 하나만 사용한다.
+ * primary/replica 풀은 p6spy 데코레이터에서 제외한다. (decorator.datasource.exclude-beans, 라우팅 DataSource만 감싼다)
+ */
+@Configuration
+@ConditionalOnProperty(name = "querydsl.datasource.replica.jdbc-url")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("querydsl.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 @Value("${querydsl.datasource.replica.retry-interval:30s}") Duration retryInterval) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, retryInterval));
+    }
+}
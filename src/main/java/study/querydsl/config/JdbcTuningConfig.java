@@ -0,0 +1,92 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+@EnableConfigurationProperties(JdbcTuningProperties.class)
+public class JdbcTuningConfig {
+
+    //spring.datasource.hikari.* 바인딩이 끝난 뒤, 풀이 시작되기 전에 적용한다. (primary, replica 모두)
+    @Bean
+    public static BeanPostProcessor hikariTuningPostProcessor(ObjectProvider<JdbcTuningProperties> properties) {
+        return new HikariTuningPostProcessor(properties);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcFetchSizeCustomizer(JdbcTuningProperties properties) {
+        return hibernateProperties -> {
+            if (properties.getFetchSize() != null) {
+                hibernateProperties.put(AvailableSettings.STATEMENT_FETCH_SIZE, properties.getFetchSize());
+            }
+        };
+    }
+
+    /**
+     * p6spy 데코레이터(decorator.datasource.enabled)보다 먼저 실행되어야 HikariDataSource를 그대로 받는다.
+     * 이미 감싸져 있으면 unwrap 해서 적용한다.
+     */
+    static final class HikariTuningPostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+        private final ObjectProvider<JdbcTuningProperties> properties;
+
+        HikariTuningPostProcessor(ObjectProvider<JdbcTuningProperties> properties) {
+            this.properties = properties;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            HikariDataSource hikari = hikariOf(bean);
+            if (hikari != null) {
+                tune(hikari, properties.getObject());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        private static HikariDataSource hikariOf(Object bean) {
+            if (bean instanceof HikariDataSource) {
+                return (HikariDataSource) bean;
+            }
+            if (bean instanceof DataSource) {
+                try {
+                    DataSource dataSource = (DataSource) bean;
+                    return dataSource.isWrapperFor(HikariDataSource.class)
+                            ? dataSource.unwrap(HikariDataSource.class)
+                            : null;
+                } catch (SQLException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static void tune(HikariDataSource dataSource, JdbcTuningProperties properties) {
+        if (properties.getPoolSize() != null) {
+            dataSource.setMaximumPoolSize(properties.getPoolSize());
+            dataSource.setMinimumIdle(properties.getMinimumIdle() != null ? properties.getMinimumIdle() : properties.getPoolSize());
+        } else if (properties.getMinimumIdle() != null) {
+            dataSource.setMinimumIdle(properties.getMinimumIdle());
+        }
+        if (properties.getConnectionTimeout() != null) {
+            dataSource.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+        }
+        properties.statementCacheProperties(dataSource.getJdbcUrl()).forEach(dataSource::addDataSourceProperty);
+    }
+}
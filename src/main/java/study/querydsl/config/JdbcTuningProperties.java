@@ -0,0 +1,67 @@
+package study.querydsl.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * querydsl.jdbc.* 커넥션 풀 / statement 캐시 / fetch size
+ * 값이 없으면(null) spring.datasource.hikari.* 나 드라이버 기본값을 그대로 쓴다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.jdbc")
+public class JdbcTuningProperties {
+
+    /**
+     * 최대 커넥션 수 (hikari maximumPoolSize)
+     */
+    private Integer poolSize;
+
+    /**
+     * 유휴 커넥션 수, 없으면 poolSize와 같은 고정 크기 풀
+     */
+    private Integer minimumIdle;
+
+    private Duration connectionTimeout;
+
+    /**
+     * 커넥션마다 캐시할 prepared statement 수 (드라이버별 속성으로 변환)
+     */
+    private Integer statementCacheSize;
+
+    /**
+     * ResultSet을 한 번에 가져오는 행 수 (hibernate.jdbc.fetch_size)
+     */
+    private Integer fetchSize;
+
+    /**
+     * statementCacheSize를 드라이버 속성으로 바꾼다. 모르는 드라이버면 빈 Map
+     * - H2: QUERY_CACHE_SIZE (세션별 파싱된 쿼리 캐시)
+     * - MySQL: cachePrepStmts, prepStmtCacheSize
+     * - PostgreSQL: preparedStatementCacheQueries
+     */
+    public Map<String, String> statementCacheProperties(String jdbcUrl) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        if (statementCacheSize == null || jdbcUrl == null) {
+            return properties;
+        }
+        String url = jdbcUrl.toLowerCase(Locale.ROOT);
+        String size = String.valueOf(statementCacheSize);
+        if (url.startsWith("jdbc:h2:")) {
+            properties.put("QUERY_CACHE_SIZE", size);
+        } else if (url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:")) {
+            properties.put("cachePrepStmts", String.valueOf(statementCacheSize > 0));
+            properties.put("prepStmtCacheSize", size);
+            properties.put("useServerPrepStmts", "true");
+        } else if (url.startsWith("jdbc:postgresql:")) {
+            properties.put("preparedStatementCacheQueries", size);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,27 @@
+package study.querydsl.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.support.NPlusOneDetectionFilter;
+import study.querydsl.support.QueryCountInspector;
+
+@Configuration
+public class QueryCountConfig {
+
+    //범위(QueryCountHolder.start())를 열지 않으면 집계하지 않으므로 항상 등록해둔다.
+    @Bean
+    public HibernatePropertiesCustomizer queryCountInspectorCustomizer(
+            @Value("${querydsl.sql-log.sample-rate:0}") double sampleRate) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector(sampleRate));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "querydsl.n-plus-one.enabled", havingValue = "true")
+    public NPlusOneDetectionFilter nPlusOneDetectionFilter(@Value("${querydsl.n-plus-one.threshold:3}") int threshold) {
+        return new NPlusOneDetectionFilter(threshold);
+    }
+}
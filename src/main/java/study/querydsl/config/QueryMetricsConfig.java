@@ -0,0 +1,22 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.support.RepositoryMetricsAspect;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "querydsl.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryMetricsConfig {
+
+    @Bean
+    public RepositoryMetricsAspect repositoryMetricsAspect(
+            MeterRegistry registry,
+            @Value("${querydsl.metrics.slow-query-threshold:500ms}") Duration slowQueryThreshold) {
+        return new RepositoryMetricsAspect(registry, slowQueryThreshold);
+    }
+}
@@ -0,0 +1,37 @@
+package study.querydsl.config;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.support.QueryResultCache;
+import study.querydsl.support.QueryResultCacheInvalidationListener;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+
+@Configuration
+public class QueryResultCacheConfig {
+
+    @Bean
+    public QueryResultCache queryResultCache(@Value("${querydsl.result-cache.enabled:false}") boolean enabled,
+                                             @Value("${querydsl.result-cache.max-size:1000}") int maxSize,
+                                             @Value("${querydsl.result-cache.ttl:60s}") Duration ttl) {
+        return new QueryResultCache(enabled, maxSize, ttl);
+    }
+
+    @Bean
+    public QueryResultCacheInvalidationListener queryResultCacheInvalidationListener(EntityManagerFactory emf,
+                                                                                     QueryResultCache resultCache) {
+        QueryResultCacheInvalidationListener listener = new QueryResultCacheInvalidationListener(resultCache);
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        return listener;
+    }
+}
@@ -0,0 +1,33 @@
+package study.querydsl.config;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.repository.TeamStatsRepository;
+import study.querydsl.support.TeamStatsChangeListener;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 요약 테이블을 쓸 때만 회원 변경 이벤트를 받는다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "querydsl.team-stats.summary", havingValue = "true")
+public class TeamStatsConfig {
+
+    @Bean
+    public TeamStatsChangeListener teamStatsChangeListener(EntityManagerFactory emf,
+                                                           TeamStatsRepository teamStatsRepository) {
+        TeamStatsChangeListener listener = new TeamStatsChangeListener(teamStatsRepository::markDirty);
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        return listener;
+    }
+}
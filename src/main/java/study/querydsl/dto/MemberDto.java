@@ -1,16 +1,19 @@
 package study.querydsl.dto;
 
 import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
 import lombok.NoArgsConstructor;
+import study.querydsl.projection.GenerateProjection;
 
+@Data
 @NoArgsConstructor
 public class MemberDto {
 
     private String username;
     private int age;
 
-
     @QueryProjection //DTO로 QMember생성 , 편하지만 순수한 DTO(querydsl에 의존성을 가지기 때문에)가 되지 못하는 아키텍쳐적 단점이 있다.
+    @GenerateProjection //MemberDtoProjection 생성, querydsl 의존 없이 같은 방식 (순수 DTO는 이것만 남기면 된다. UserDto 참고)
     public MemberDto(String username, int age) {
         this.username = username;
         this.age = age;
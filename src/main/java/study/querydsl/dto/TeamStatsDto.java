@@ -0,0 +1,30 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 팀별 회원 나이 통계 (count/sum/avg/max/min)
+ */
+@Data
+@NoArgsConstructor
+public class TeamStatsDto {
+
+    private Long teamId;
+    private String teamName;
+    private long count;
+    private long sum;
+    private double avg;
+    private Integer max;
+    private Integer min;
+
+    public TeamStatsDto(Long teamId, String teamName, long count, long sum, Integer max, Integer min) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.count = count;
+        this.sum = sum;
+        this.avg = count == 0 ? 0 : (double) sum / count; //db avg는 정수 컬럼이면 버림이 되므로 직접 계산
+        this.max = max;
+        this.min = min;
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import study.querydsl.projection.GenerateProjection;
+
+/**
+ * querydsl에 의존하지 않는 DTO, 프로젝션(UserDtoProjection)은 컴파일 시점에 생성된다.
+ */
+@Data
+@NoArgsConstructor
+public class UserDto {
+
+    private String name;
+    private int age;
+
+    @GenerateProjection
+    public UserDto(String name, int age) {
+        this.name = name;
+        this.age = age;
+    }
+}
@@ -0,0 +1,64 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Member/Team 변경 피드(outbox), 변경과 같은 트랜잭션에서 기록된다.
+ * id가 읽기 offset이다. (ChangeFeedRepository.readAfter)
+ * 행은 JDBC batch insert, HQL insert-select로만 만들어지므로 타입은 문자열 컬럼에 두고 getter에서 enum으로 돌려준다.
+ */
+@Entity
+@Table(name = "change_event")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class ChangeEvent {
+
+    public enum EntityType {
+        MEMBER, TEAM
+    }
+
+    public enum Type {
+        INSERT,
+        UPDATE,
+        TEAM_CHANGE, //Member.changeTeam
+        DELETE,
+        BULK_UPDATE, //벌크 update 대상, 변경된 값은 다시 조회해야 한다.
+        BULK_DELETE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "change_event_id")
+    private Long id;
+
+    @Getter(AccessLevel.NONE)
+    private String entityType;
+    private Long entityId;
+
+    @Getter(AccessLevel.NONE)
+    private String changeType;
+    private Long teamId; //회원 이벤트면 (변경 후) 소속 팀
+
+    @Column(insertable = false, updatable = false, columnDefinition = "timestamp default current_timestamp")
+    private LocalDateTime createdAt;
+
+    public EntityType getEntityType() {
+        return EntityType.valueOf(entityType);
+    }
+
+    public Type getChangeType() {
+        return Type.valueOf(changeType);
+    }
+}
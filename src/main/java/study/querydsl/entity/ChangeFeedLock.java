@@ -0,0 +1,33 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * 변경 피드 쓰기 잠금 (행 하나)
+ * 피드를 쓰는 트랜잭션은 이 행을 update 해서 커밋까지 잠그므로 change_event id 순서와 커밋 순서가 같다.
+ */
+@Entity
+@Table(name = "change_feed_lock")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ChangeFeedLock {
+
+    public static final long ID = 1L;
+
+    @Id
+    @Column(name = "change_feed_lock_id")
+    private Long id;
+
+    private long version; //잠글 때마다 증가
+
+    public ChangeFeedLock(Long id) {
+        this.id = id;
+    }
+}
@@ -1,20 +1,38 @@
 package study.querydsl.entity;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import study.querydsl.support.ChangeFeedEntityListener;
 
 import javax.persistence.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"), //username = ?
+        @Index(name = "idx_member_team_id", columnList = "team_id"), //team 조인, team_id in (...)
+        @Index(name = "idx_member_age_username", columnList = "age desc, username asc") //age 범위 검색 + age desc, username asc 정렬
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(ChangeFeedEntityListener.class)
 @Getter@Setter
 @NoArgsConstructor
 @ToString(of = {"id", "username", "age"})
 public class Member {
 
+    /**
+     * findByUsername 쿼리 캐시 리전 (ehcache.xml)
+     */
+    public static final String USERNAME_CACHE_REGION = "member-username";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50) //시퀀스를 한 번 호출해서 50개씩 id를 미리 할당
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -22,8 +40,14 @@ public class Member {
 
     @ManyToOne(fetch = FetchType.LAZY) //연관관계의 주인
     @JoinColumn(name = "team_id")
+    @Setter(AccessLevel.NONE) //팀 변경은 changeTeam으로만 (연관관계 편의, 변경 피드)
     private Team team;
 
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean teamChanged; //변경 피드용, 다음 update를 TEAM_CHANGE로 기록한다.
+
     public Member(String username) {
         this(username, 0);
     }
@@ -41,7 +65,17 @@ public class Member {
     }
 
     public void changeTeam(Team team) {
+        this.teamChanged |= this.team != team; //flush 전에 여러 번 바꿔도 TEAM_CHANGE로 남는다.
         this.team = team;
         team.getMembers().add(this);
     }
+
+    /**
+     * changeTeam 이후 처음 호출되면 true, 호출하면 초기화된다.
+     */
+    public boolean consumeTeamChanged() {
+        boolean changed = teamChanged;
+        teamChanged = false;
+        return changed;
+    }
 }
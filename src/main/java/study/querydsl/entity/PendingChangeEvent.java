@@ -0,0 +1,34 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * 벌크 연산 대상(ChangeFeedRepository.beforeBulk)을 커밋 전까지 모아두는 표, 트랜잭션(txKey)별로 구분한다.
+ * 커밋 직전에 잠금을 잡은 뒤 change_event로 옮기고 지운다. (change_event id를 커밋 시점에 받도록)
+ */
+@Entity
+@Table(name = "change_event_pending")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class PendingChangeEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "change_event_pending_id")
+    private Long id;
+
+    private String txKey;
+    private String entityType;
+    private Long entityId;
+    private String changeType;
+    private Long teamId;
+}
@@ -2,24 +2,33 @@ package study.querydsl.entity;
 
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import study.querydsl.support.ChangeFeedEntityListener;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name")) //teamName 검색 조건
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(ChangeFeedEntityListener.class)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"}) //본인 소유 필드만 지정해야한다. 연관관계 필드는 x -> 서로 toString메소드르 봐라봐서 에러가 남
 public class Team {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
     @Column(name = "team_id")
     private Long id;
     private String name;
 
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE) //회원 id 목록만 캐시, 회원 자체는 Member 리전에서 가져온다.
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
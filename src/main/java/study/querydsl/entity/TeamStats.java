@@ -0,0 +1,29 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * 팀별 회원 나이 통계 요약 테이블 (TeamStatsRepository가 변경된 팀의 행만 hql insert-select로 다시 만든다)
+ * 팀과 연관관계 없이 team_id만 가진다. 회원이 없는 팀은 행이 없다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+    private long memberCount;
+    private long ageSum;
+    private Integer ageMax;
+    private Integer ageMin;
+}
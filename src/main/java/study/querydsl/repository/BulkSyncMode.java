@@ -0,0 +1,18 @@
+package study.querydsl.repository;
+
+/**
+ * 벌크 연산 후 영속성 컨텍스트를 DB와 맞추는 방법
+ */
+public enum BulkSyncMode {
+
+    /**
+     * 영속성 컨텍스트 전체를 비운다. (em.clear())
+     */
+    CLEAR,
+
+    /**
+     * 벌크 연산 대상 회원만 준영속 상태로 만든다. 나머지 엔티티는 그대로 유지
+     * 대상 id를 구하는 select가 한 번 더 나간다.
+     */
+    EVICT_AFFECTED
+}
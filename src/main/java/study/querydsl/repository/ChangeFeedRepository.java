@@ -0,0 +1,312 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.ChangeEvent;
+import study.querydsl.entity.ChangeEvent.EntityType;
+import study.querydsl.entity.ChangeEvent.Type;
+import study.querydsl.entity.ChangeFeedLock;
+import study.querydsl.support.ReplicaRoutingDataSource;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static study.querydsl.entity.QChangeEvent.changeEvent;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * Member/Team 변경 피드 (outbox 테이블 change_event)
+ * 엔티티 리스너(ChangeFeedEntityListener)가 모은 변경은 커밋 직전(flush 이후)에 같은 트랜잭션, 같은 커넥션으로
+ * 한 번에 batch insert 한다. 벌크 연산(MemberBulkListener)은 실행 직전에 같은 조건으로 대상 회원을
+ * change_event_pending에 insert-select 해두고 커밋 직전에 change_event로 옮긴다.
+ * -> 롤백되면 피드도 없다. querydsl.change-feed.enabled=false면 기록하지 않는다.
+ * <p>
+ * 커밋 직전에 change_feed_lock 행을 잠근 뒤 change_event에 쓰고 커밋까지 유지하므로 id(offset) 순서가 커밋 순서와 같다.
+ * 따라서 읽은 마지막 id 이후만 읽어도 늦게 커밋된 변경을 건너뛰지 않는다.
+ * 비용: 피드를 쓰는 트랜잭션(Member/Team 변경)끼리는 커밋 구간(피드 insert ~ 커밋)이 직렬화된다.
+ * 커밋 처리량의 상한이 한 번의 피드 insert + 커밋 시간으로 정해진다. (잠금 대기가 길면 DB 잠금 타임아웃)
+ * <p>
+ * 기록되지 않는 변경: MemberRepositoryCustom의 bulk* 밖에서 실행한 벌크 JPQL
+ * (queryFactory.update(member)...execute(), Team 벌크 연산, 네이티브 쿼리).
+ * 엔티티 이벤트도 MemberBulkListener 호출도 없기 때문이다. 피드가 필요한 벌크 변경은 리포지토리 메서드로 실행한다.
+ */
+@Repository
+public class ChangeFeedRepository implements MemberBulkListener {
+
+    private static final String LOCK = "update change_feed_lock set version = version + 1 where change_feed_lock_id = "
+            + ChangeFeedLock.ID;
+    private static final String INSERT_LOCK = "insert into change_feed_lock (change_feed_lock_id, version) values ("
+            + ChangeFeedLock.ID + ", 1)";
+    private static final String INSERT = "insert into change_event (entity_type, entity_id, change_type, team_id)"
+            + " values (?, ?, ?, ?)";
+    private static final String MOVE_PENDING = "insert into change_event (entity_type, entity_id, change_type, team_id)"
+            + " select entity_type, entity_id, change_type, team_id from change_event_pending where tx_key = ?"
+            + " order by change_event_pending_id";
+    private static final String DELETE_PENDING = "delete from change_event_pending where tx_key = ?";
+    private static final String INSERT_PENDING =
+            "insert into PendingChangeEvent (txKey, entityType, entityId, changeType, teamId) ";
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readTemplate;
+    private final boolean enabled;
+
+    public ChangeFeedRepository(EntityManager em, JPAQueryFactory queryFactory,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${querydsl.change-feed.enabled:false}") boolean enabled) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        //호출한 쪽 트랜잭션이 있으면 참여한다. (커넥션을 하나 더 잡지 않는다) replica 대신 primary는 onPrimary로
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 잠금 행을 미리 만들어 둔다. (여러 인스턴스가 동시에 시작하면 한 곳만 성공한다)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (em.find(ChangeFeedLock.class, ChangeFeedLock.ID) == null) {
+                    em.persist(new ChangeFeedLock(ChangeFeedLock.ID));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            //다른 인스턴스가 먼저 만들었다.
+        }
+    }
+
+    /**
+     * 현재 트랜잭션의 변경 하나, 커밋 직전에 기록된다. 트랜잭션 밖이면 무시한다.
+     */
+    public void record(EntityType entityType, Long entityId, Type changeType, Long teamId) {
+        if (!enabled || entityId == null || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        current().pending.add(new PendingChange(entityType, entityId, changeType, teamId));
+    }
+
+    /**
+     * 벌크 연산은 엔티티 이벤트가 없으므로 실행 직전에 같은 조건으로 대상 회원을 BULK_* 로 insert-select 한다.
+     * 대상 행을 애플리케이션으로 가져오지 않는다. change_event로는 커밋 직전에 옮긴다. (잠금은 그때부터)
+     */
+    @Override
+    public void beforeBulk(Operation operation, Predicate[] where) {
+        if (!enabled || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        FeedTransaction feed = current();
+        feed.hasBulk = true;
+
+        Type changeType = operation == Operation.DELETE ? Type.BULK_DELETE : Type.BULK_UPDATE;
+        //Querydsl이 만든 조건(JPQL, 바인딩 값)을 그대로 insert-select의 select로 쓴다.
+        Query select = queryFactory
+                .select(literal(feed.key), literal(EntityType.MEMBER.name()), member.id,
+                        literal(changeType.name()), member.team.id)
+                .from(member)
+                .where(where)
+                .createQuery();
+        Query insert = em.createQuery(INSERT_PENDING
+                + select.unwrap(org.hibernate.query.Query.class).getQueryString());
+        for (Parameter<?> parameter : select.getParameters()) {
+            copyParameter(select, insert, parameter);
+        }
+        insert.executeUpdate();
+    }
+
+    /**
+     * offset 이후 변경을 최대 batchSize 건, offset 순서로 읽는다. 다음 offset은 마지막 원소의 id
+     * replica가 있어도 primary에서 읽는다. (복제 지연으로 건너뛰지 않도록, ReplicaRoutingDataSource.onPrimary)
+     * 호출한 쪽 트랜잭션이 이미 replica 커넥션을 쓰고 있으면 그 커넥션을 따르므로 트랜잭션 밖이나 읽기-쓰기 트랜잭션에서 호출한다.
+     */
+    public List<ChangeEvent> readAfter(long offset, int batchSize) {
+        checkBatchSize(batchSize);
+        return ReplicaRoutingDataSource.onPrimary(() -> readTemplate.execute(status -> queryFactory
+                .selectFrom(changeEvent)
+                .where(changeEvent.id.gt(offset))
+                .orderBy(changeEvent.id.asc())
+                .limit(batchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .fetch()));
+    }
+
+    /**
+     * offset 이후 변경을 batchSize 단위로 끝까지 읽어 sink에 넘긴다. 트랜잭션 밖에서 호출하면 배치마다 조회 트랜잭션이 따로 열린다.
+     *
+     * @return 마지막으로 넘긴 변경의 offset (없으면 입력 offset)
+     */
+    public long stream(long offset, int batchSize, Consumer<ChangeEvent> sink) {
+        checkBatchSize(batchSize);
+        long last = offset;
+        List<ChangeEvent> batch;
+        do {
+            batch = readAfter(last, batchSize);
+            for (ChangeEvent event : batch) {
+                sink.accept(event);
+                last = event.getId();
+            }
+        } while (batch.size() == batchSize);
+        return last;
+    }
+
+    static void checkBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize는 1 이상이어야 합니다: " + batchSize);
+        }
+    }
+
+    /**
+     * 트랜잭션(세션)마다 하나, TeamStatsRepository와 같은 이유로 Hibernate의 커밋 직전 처리에 건다.
+     */
+    private FeedTransaction current() {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        Object key = new SessionKey(session);
+        FeedTransaction feed = (FeedTransaction) TransactionSynchronizationManager.getResource(key);
+        if (feed == null) {
+            FeedTransaction created = new FeedTransaction();
+            TransactionSynchronizationManager.bindResource(key, created);
+            ActionQueue actionQueue = session.getActionQueue();
+            actionQueue.registerProcess((BeforeTransactionCompletionProcess) s -> insert(s, created));
+            actionQueue.registerProcess((AfterTransactionCompletionProcess) (success, s) ->
+                    TransactionSynchronizationManager.unbindResourceIfPossible(key));
+            feed = created;
+        }
+        return feed;
+    }
+
+    //커밋까지 잠금 행을 잡는다. 커밋 직전에만 호출된다.
+    private static void lock(SessionImplementor session) {
+        session.doWork(connection -> {
+            try (PreparedStatement lock = connection.prepareStatement(LOCK)) {
+                if (lock.executeUpdate() == 0) { //initialize() 전
+                    try (PreparedStatement insert = connection.prepareStatement(INSERT_LOCK)) {
+                        insert.executeUpdate();
+                    }
+                }
+            }
+        });
+    }
+
+    private static void insert(SessionImplementor session, FeedTransaction feed) {
+        if (feed.pending.isEmpty() && !feed.hasBulk) {
+            return;
+        }
+        lock(session);
+        if (feed.hasBulk) { //벌크 대상이 먼저 (실행 시점 순서)
+            session.doWork(connection -> {
+                try (PreparedStatement move = connection.prepareStatement(MOVE_PENDING);
+                     PreparedStatement delete = connection.prepareStatement(DELETE_PENDING)) {
+                    move.setString(1, feed.key);
+                    move.executeUpdate();
+                    delete.setString(1, feed.key);
+                    delete.executeUpdate();
+                }
+            });
+        }
+        if (feed.pending.isEmpty()) {
+            return;
+        }
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT)) {
+                for (PendingChange change : feed.pending) {
+                    ps.setString(1, change.entityType.name());
+                    ps.setLong(2, change.entityId);
+                    ps.setString(3, change.changeType.name());
+                    if (change.teamId != null) {
+                        ps.setLong(4, change.teamId);
+                    } else {
+                        ps.setNull(4, Types.BIGINT);
+                    }
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    //파라미터가 아니라 JPQL 문자열 리터럴로 넣는다. (enum 이름, UUID라 이스케이프 불필요)
+    private static Expression<String> literal(String value) {
+        return Expressions.stringTemplate("'" + value + "'");
+    }
+
+    private static <T> void copyParameter(Query source, Query target, Parameter<T> parameter) {
+        T value = source.getParameterValue(parameter);
+        if (parameter.getPosition() != null) {
+            target.setParameter(parameter.getPosition(), value);
+        } else {
+            target.setParameter(parameter.getName(), value);
+        }
+    }
+
+    private static final class FeedTransaction {
+        private final String key = UUID.randomUUID().toString(); //change_event_pending.tx_key
+        private final List<PendingChange> pending = new ArrayList<>();
+        private boolean hasBulk;
+    }
+
+    private static final class PendingChange {
+        private final EntityType entityType;
+        private final Long entityId;
+        private final Type changeType;
+        private final Long teamId;
+
+        private PendingChange(EntityType entityType, Long entityId, Type changeType, Long teamId) {
+            this.entityType = entityType;
+            this.entityId = entityId;
+            this.changeType = changeType;
+            this.teamId = teamId;
+        }
+    }
+
+    //TeamStatsRepository가 세션 자체를 키로 쓰므로 따로 감싼다.
+    private static final class SessionKey {
+        private final SessionImplementor session;
+
+        private SessionKey(SessionImplementor session) {
+            this.session = session;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SessionKey && ((SessionKey) o).session == session;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(session);
+        }
+    }
+}
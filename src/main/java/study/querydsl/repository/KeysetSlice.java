@@ -0,0 +1,25 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 키셋(seek) 페이징 결과
+ * nextToken을 다음 조회에 그대로 넘기면 이어서 조회한다. 마지막 페이지면 null
+ */
+@Getter
+public class KeysetSlice<T> {
+
+    private final List<T> content;
+    private final String nextToken;
+
+    public KeysetSlice(List<T> content, String nextToken) {
+        this.content = content;
+        this.nextToken = nextToken;
+    }
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
@@ -0,0 +1,61 @@
+package study.querydsl.repository;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.entity.Member;
+import study.querydsl.support.BoundedQueryExecutor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 서로 독립적인 조회를 병렬로 실행하기 위한 비동기 버전
+ * 호출마다 별도 쓰레드에서 읽기 전용 트랜잭션을 새로 연다. 호출한 쪽의 트랜잭션에는 참여하지 않는다.
+ * (아직 커밋하지 않은 변경은 보이지 않는다)
+ */
+@Repository
+public class MemberAsyncRepository {
+
+    private final MemberRepository memberRepository;
+    private final BoundedQueryExecutor executor;
+    private final TransactionTemplate readOnlyTx;
+    private final Duration timeout;
+
+    public MemberAsyncRepository(MemberRepository memberRepository,
+                                 @Qualifier("memberQueryExecutor") BoundedQueryExecutor memberQueryExecutor,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${querydsl.async.timeout:5s}") Duration timeout) {
+        this.memberRepository = memberRepository;
+        this.executor = memberQueryExecutor;
+        this.timeout = timeout;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setTimeout((int) Math.max(1, (timeout.toMillis() + 999) / 1000)); //쿼리 타임아웃으로 전파
+    }
+
+    public CompletableFuture<List<MemberDto>> searchAsync(MemberSearchCondition condition) {
+        return submit(() -> memberRepository.serch(condition));
+    }
+
+    public CompletableFuture<Long> countAsync(MemberSearchCondition condition) {
+        return submit(() -> memberRepository.count(condition));
+    }
+
+    /**
+     * 트랜잭션이 끝난 뒤 돌려주므로 지연 로딩(team)은 초기화되지 않은 상태다.
+     */
+    public CompletableFuture<Optional<Member>> findByIdAsync(Long id) {
+        return submit(() -> memberRepository.findById(id));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> query) {
+        return executor.submit(() -> readOnlyTx.execute(status -> query.get()), timeout);
+    }
+}
@@ -0,0 +1,19 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+
+/**
+ * 벌크 update/delete는 엔티티 이벤트가 발생하지 않으므로 실행 직전에 대상 조건을 알려준다.
+ * 빈으로 등록하면 MemberRepositoryCustom의 bulk* 메서드가 호출한다. (같은 트랜잭션)
+ */
+public interface MemberBulkListener {
+
+    enum Operation {
+        ADD_AGE, RENAME, DELETE
+    }
+
+    /**
+     * @param where 벌크 연산의 조건 (조인 없이 member 기준, null 원소 포함 가능)
+     */
+    void beforeBulk(Operation operation, Predicate[] where);
+}
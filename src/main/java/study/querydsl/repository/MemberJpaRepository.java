@@ -1,27 +1,60 @@
 package study.querydsl.repository;
 
 
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
+import study.querydsl.support.QueryResultCache;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static study.querydsl.entity.QMember.member;
+
 @Repository
 public class MemberJpaRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final QueryResultCache resultCache;
 
-    public MemberJpaRepository(EntityManager em, JPAQueryFactory queryFactory) {
+    public MemberJpaRepository(EntityManager em, JPAQueryFactory queryFactory, QueryResultCache resultCache) {
         this.em = em;
         this.queryFactory = queryFactory;
+        this.resultCache = resultCache;
     }
 
     public void save(Member member) {
         em.persist(member);
+        resultCache.invalidate(Member.class); //flush 전이라도 같은 트랜잭션에서 캐시된 결과를 보지 않도록
+    }
+
+    /**
+     * chunkSize 건마다 flush(배치 insert) 후 영속성 컨텍스트를 비운다.
+     * 연관된 Team은 미리 저장되어 있어야 한다.
+     */
+    public void saveAll(Collection<Member> members, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize는 1 이상이어야 합니다: " + chunkSize);
+        }
+        int count = 0;
+        for (Member member : members) {
+            em.persist(member);
+            if (++count % chunkSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        resultCache.invalidate(Member.class);
     }
 
     public Optional<Member> findById(Long id) {
@@ -29,11 +62,58 @@ public class MemberJpaRepository {
         return Optional.ofNullable(member);
     }
 
+    /**
+     * 새로 로딩되는 엔티티를 읽기 전용으로 올린다. (변경 감지용 스냅샷 x, 수정해도 flush되지 않는다)
+     * 이미 영속성 컨텍스트에 있는 엔티티는 그대로 돌려준다.
+     * 세션 설정과 조회가 같은 EntityManager에서 실행되도록 트랜잭션 안에서 실행한다.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Member> findByIdReadOnly(Long id) {
+        Session session = em.unwrap(Session.class);
+        boolean defaultReadOnly = session.isDefaultReadOnly();
+        session.setDefaultReadOnly(true);
+        try {
+            return Optional.ofNullable(em.find(Member.class, id));
+        } finally {
+            session.setDefaultReadOnly(defaultReadOnly);
+        }
+    }
+
 
+    /**
+     * 쿼리 캐시에는 member id만 저장되고 엔티티는 2차 캐시에서 가져온다.
+     * member 테이블이 변경되면(이름 변경, 벌크 update 포함) 캐시된 결과는 사용되지 않는다.
+     */
+    @Transactional(readOnly = true)
     public List<Member> findByUsername(String username) {
         return em.createQuery("select m from Member m where m.username= :username", Member.class)
                 .setParameter("username", username)
+                .setHint(QueryHints.CACHEABLE, true)
+                .setHint(QueryHints.CACHE_REGION, Member.USERNAME_CACHE_REGION)
                 .getResultList();
     }
 
+    @Transactional(readOnly = true)
+    public List<Member> findByUsernameReadOnly(String username) {
+        return readOnly(queryFactory.selectFrom(member).where(member.username.eq(username))).fetch();
+    }
+
+    /**
+     * 대량 조회용, 결과 엔티티는 읽기 전용이다.
+     */
+    @Transactional(readOnly = true)
+    public List<Member> findAllReadOnly() {
+        return readOnly(queryFactory.selectFrom(member)).fetch();
+    }
+
+    /**
+     * 읽기 전용 힌트: 조회한 엔티티의 스냅샷을 만들지 않고, 쿼리 전에 flush 하지 않는다.
+     * (같은 트랜잭션에서 아직 flush 되지 않은 변경은 결과에 반영되지 않는다)
+     */
+    private static <T> JPAQuery<T> readOnly(JPAQuery<T> query) {
+        return query
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.FLUSH_MODE, FlushMode.MANUAL);
+    }
+
 }
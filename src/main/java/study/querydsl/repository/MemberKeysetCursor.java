@@ -0,0 +1,44 @@
+package study.querydsl.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 마지막으로 읽은 행의 정렬 키(age)와 tie-breaker(member_id)
+ * 클라이언트에는 불투명한 토큰으로만 노출한다.
+ */
+class MemberKeysetCursor {
+
+    private final int age;
+    private final long memberId;
+
+    MemberKeysetCursor(int age, long memberId) {
+        this.age = age;
+        this.memberId = memberId;
+    }
+
+    int getAge() {
+        return age;
+    }
+
+    long getMemberId() {
+        return memberId;
+    }
+
+    String encode() {
+        String raw = age + ":" + memberId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static MemberKeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new MemberKeysetCursor(
+                    Integer.parseInt(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("잘못된 페이지 토큰입니다: " + token, e);
+        }
+    }
+}
@@ -1,11 +1,21 @@
 package study.querydsl.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 
+import javax.persistence.QueryHint;
+
 import java.util.List;
 
-public interface MemberRepository extends JpaRepository<Member, Long> {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
 
+    //쿼리 캐시(username -> member id 목록) + 2차 캐시(Member), member 테이블이 바뀌면(벌크 연산 포함) 무효화
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = Member.USERNAME_CACHE_REGION)
+    })
     List<Member> findByUsername(String username);
 }
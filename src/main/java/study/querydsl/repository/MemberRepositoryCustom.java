@@ -1,10 +1,84 @@
 package study.querydsl.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import study.querydsl.dto.MemberDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MemberRepositoryCustom {
 
     List<MemberDto> serch(MemberSearchCondition condition);
+
+    /**
+     * serch와 같은 결과, 조건 조합별로 미리 만들어둔 JPQL을 재사용해서 쿼리 생성/파싱 비용을 없앤다.
+     */
+    List<MemberDto> searchByTemplate(MemberSearchCondition condition);
+
+    /**
+     * 나이 오름차순, member_id 오름차순 키셋 페이징
+     * continuationToken이 null이면 첫 페이지를 조회한다.
+     */
+    KeysetSlice<MemberDto> searchByKeyset(MemberSearchCondition condition, String continuationToken, int size);
+
+    /**
+     * 컨텐츠만으로 전체 개수를 알 수 있으면(첫 페이지가 size보다 작거나 마지막 페이지) count 쿼리를 생략한다.
+     */
+    Page<MemberDto> searchPage(MemberSearchCondition condition, Pageable pageable);
+
+    /**
+     * count 쿼리 없이 다음 페이지 존재 여부만 확인한다. 전체 개수가 필요하면 count()를 따로 호출
+     */
+    Slice<MemberDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+
+    long count(MemberSearchCondition condition);
+
+    /**
+     * 전체 결과를 리스트로 올리지 않고 forward-only 커서로 한 건씩 sink에 넘긴다.
+     * DTO 프로젝션이라 영속성 컨텍스트에 쌓이는 것이 없으므로 건수와 상관없이 메모리 사용량이 일정하다.
+     *
+     * @return 내보낸 건수
+     */
+    long export(MemberSearchCondition condition, int fetchSize, Consumer<MemberDto> sink);
+
+    /**
+     * member_id 범위를 partitions 개로 나눠서 최대 parallelism 개를 동시에 조회한다.
+     * 파티션마다 별도 커넥션, 읽기 전용 트랜잭션으로 실행되므로 호출한 쪽 트랜잭션의 커밋되지 않은 변경은 보이지 않는다.
+     * sink는 호출한 쓰레드에서만 호출된다. (동기화 불필요)
+     * 파티션은 공유 쿼리 실행기에서 실행되므로 전체 동시 실행 수는 커넥션 풀 크기를 넘지 않는다.
+     * 결과는 페이지 단위로 넘어오므로 메모리 사용량은 전체 건수가 아니라 parallelism에 비례한다.
+     *
+     * @return sink에 넘긴 건수
+     */
+    long scanByIdRange(MemberSearchCondition condition, int partitions, int parallelism, ScanOrder order,
+                       Consumer<MemberDto> sink);
+
+    /**
+     * teamIds를 partitions 개로 나눠서 병렬 조회한다. (team_id 인덱스)
+     */
+    long scanByTeam(MemberSearchCondition condition, List<Long> teamIds, int partitions, int parallelism,
+                    ScanOrder order, Consumer<MemberDto> sink);
+
+    /**
+     * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로 실행 전에 flush하고, 실행 후 syncMode에 따라 영속성 컨텍스트를 정리한다.
+     *
+     * @return 영향을 받은 회원 수
+     */
+    long bulkAddAge(MemberSearchCondition condition, int amount, BulkSyncMode syncMode);
+
+    long bulkRename(MemberSearchCondition condition, String username, BulkSyncMode syncMode);
+
+    long bulkDelete(MemberSearchCondition condition, BulkSyncMode syncMode);
+
+    /**
+     * member_id 범위를 chunkSize 단위로 나눠서 실행한다. 한 문장이 테이블 전체를 잠그지 않도록
+     * 진행 중인 트랜잭션이 없으면 청크마다 커밋된다.
+     */
+    long bulkAddAge(MemberSearchCondition condition, int amount, BulkSyncMode syncMode, int chunkSize);
+
+    long bulkRename(MemberSearchCondition condition, String username, BulkSyncMode syncMode, int chunkSize);
+
+    long bulkDelete(MemberSearchCondition condition, BulkSyncMode syncMode, int chunkSize);
 }
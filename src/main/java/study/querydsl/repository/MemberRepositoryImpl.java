@@ -1,13 +1,565 @@
 package study.querydsl.repository;
 
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberBulkListener.Operation;
+import study.querydsl.support.BoundedQueryExecutor;
+import study.querydsl.support.QueryResultCache;
+import study.querydsl.support.QueryTemplateCache;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
 
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    private static final int SCAN_PAGE_SIZE = 500;
+    private static final int SCAN_QUEUE_CAPACITY = 2; //실행 중인 파티션마다 넘겨둘 수 있는 페이지 수
+
+    //Sort 속성 -> 정렬 경로 (team 조인이 항상 있는 것은 아니므로 member 컬럼만)
+    private static final Map<String, ComparableExpressionBase<?>> SORTABLE = Map.of(
+            "id", member.id,
+            "username", member.username,
+            "age", member.age);
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate partitionTemplate;
+    private final QueryResultCache resultCache;
+    private final QueryTemplateCache templateCache;
+    private final ObjectProvider<MemberBulkListener> bulkListeners;
+    private final BoundedQueryExecutor scanExecutor;
+
+    public MemberRepositoryImpl(EntityManager em, JPAQueryFactory queryFactory,
+                                PlatformTransactionManager transactionManager, QueryResultCache resultCache,
+                                QueryTemplateCache templateCache, ObjectProvider<MemberBulkListener> bulkListeners,
+                                @Qualifier("memberScanExecutor") BoundedQueryExecutor scanExecutor) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitionTemplate = new TransactionTemplate(transactionManager);
+        this.partitionTemplate.setReadOnly(true);
+        this.partitionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.resultCache = resultCache;
+        this.templateCache = templateCache;
+        this.bulkListeners = bulkListeners;
+        this.scanExecutor = scanExecutor;
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public List<MemberDto> serch(MemberSearchCondition condition) {
-        return null;
+        return resultCache.fetch(searchQuery(new QMemberDto(member.username, member.age), condition));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MemberDto> searchByTemplate(MemberSearchCondition condition) {
+        int mask = MemberSearchTemplate.mask(condition);
+        MemberSearchTemplate.Compiled template = templateCache.get(MemberSearchTemplate.NAME, mask,
+                () -> MemberSearchTemplate.compile(em, mask));
+        return template.fetch(em, condition);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetSlice<MemberDto> searchByKeyset(MemberSearchCondition condition, String continuationToken, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size는 1 이상이어야 합니다: " + size);
+        }
+        QMemberDto memberDto = new QMemberDto(member.username, member.age);
+        MemberKeysetCursor cursor = continuationToken != null ? MemberKeysetCursor.decode(continuationToken) : null;
+
+        List<Tuple> rows = applyCondition(queryFactory.select(member.id, memberDto).from(member), condition)
+                .where(after(cursor))
+                .orderBy(member.age.asc(), member.id.asc())
+                .limit(size + 1) //다음 페이지 존재 여부 확인용으로 한 건 더 조회
+                .fetch();
+
+        boolean hasNext = rows.size() > size;
+        List<MemberDto> content = new ArrayList<>(Math.min(rows.size(), size));
+        for (int i = 0; i < rows.size() && i < size; i++) {
+            content.add(rows.get(i).get(memberDto));
+        }
+
+        String nextToken = null;
+        if (hasNext) {
+            Tuple last = rows.get(size - 1);
+            nextToken = new MemberKeysetCursor(last.get(memberDto).getAge(), last.get(member.id)).encode();
+        }
+        return new KeysetSlice<>(content, nextToken);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MemberDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberDto> content = searchQuery(new QMemberDto(member.username, member.age), condition)
+                .orderBy(orderBy(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        //count 쿼리는 필요할 때만 실행된다.
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(condition));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<MemberDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberDto> content = searchQuery(new QMemberDto(member.username, member.age), condition)
+                .orderBy(orderBy(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1)
+                .fetch();
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * order by, fetch join 없이 필터에 필요한 조인만 포함한다.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long count(MemberSearchCondition condition) {
+        Long count = searchQuery(member.count(), condition).fetchOne();
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    @Transactional(readOnly = true) //커서는 트랜잭션(커넥션)이 살아있는 동안만 유효하다.
+    public long export(MemberSearchCondition condition, int fetchSize, Consumer<MemberDto> sink) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetchSize는 1 이상이어야 합니다: " + fetchSize);
+        }
+
+        //DTO는 영속성 컨텍스트에 올라가지 않으므로 clear가 필요 없다. (호출한 쪽 트랜잭션의 엔티티도 건드리지 않는다)
+        JPAQuery<MemberDto> query = searchQuery(new QMemberDto(member.username, member.age), condition)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true);
+
+        long count = 0;
+        try (CloseableIterator<MemberDto> iterator = query.iterate()) { //ScrollMode.FORWARD_ONLY
+            while (iterator.hasNext()) {
+                sink.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long scanByIdRange(MemberSearchCondition condition, int partitions, int parallelism, ScanOrder order,
+                              Consumer<MemberDto> sink) {
+        checkPartitions(partitions, parallelism);
+        Tuple range = queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .where(bulkWhere(condition, null))
+                .fetchOne();
+        Long minId = range != null ? range.get(member.id.min()) : null;
+        Long maxId = range != null ? range.get(member.id.max()) : null;
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+
+        long width = (maxId - minId) / partitions + 1;
+        List<Predicate[]> chunks = new ArrayList<>();
+        for (long from = minId; from <= maxId; from += width) {
+            chunks.add(bulkWhere(condition, member.id.between(from, Math.min(from + width - 1, maxId))));
+        }
+        return scanPartitions(chunks, parallelism, order, sink);
+    }
+
+    @Override
+    public long scanByTeam(MemberSearchCondition condition, List<Long> teamIds, int partitions, int parallelism,
+                           ScanOrder order, Consumer<MemberDto> sink) {
+        checkPartitions(partitions, parallelism);
+        if (teamIds.isEmpty()) {
+            return 0;
+        }
+
+        int size = (teamIds.size() + partitions - 1) / partitions;
+        List<Predicate[]> chunks = new ArrayList<>();
+        for (int from = 0; from < teamIds.size(); from += size) {
+            List<Long> chunk = teamIds.subList(from, Math.min(from + size, teamIds.size()));
+            chunks.add(bulkWhere(condition, member.team.id.in(chunk)));
+        }
+        return scanPartitions(chunks, parallelism, order, sink);
+    }
+
+    private static void checkPartitions(int partitions, int parallelism) {
+        if (partitions < 1 || parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "partitions, parallelism은 1 이상이어야 합니다: " + partitions + ", " + parallelism);
+        }
+    }
+
+    /**
+     * 파티션은 스캔 전용 실행기(memberScanExecutor, 커넥션 풀보다 작다)에서 최대 parallelism 개씩 실행되고,
+     * member_id keyset으로 SCAN_PAGE_SIZE 건씩 읽어서 크기가 정해진 큐로 넘긴다. sink 호출은 호출한 쓰레드에서 한다.
+     * 메모리에는 실행 중인 파티션마다 몇 페이지만 올라온다. (큐가 차면 파티션 쪽이 기다린다)
+     * ORDERED: 파티션마다 큐를 두고 순서대로 비운다. 앞 파티션이 먼저 제출되고 실행기는 제출 순서대로 시작하므로
+     * 뒤 파티션이 큐가 차서 기다려도 앞 파티션은 진행된다.
+     * UNORDERED: 모든 파티션이 큐 하나를 같이 쓴다.
+     * 한 번에 제출하는 파티션 수는 실행기의 동시 실행 수를 넘지 않는다. (비동기 조회 실행기와는 쓰레드를 나누지 않는다)
+     */
+    private long scanPartitions(List<Predicate[]> chunks, int parallelism, ScanOrder order, Consumer<MemberDto> sink) {
+        int window = Math.min(Math.min(parallelism, chunks.size()), scanExecutor.getMaxConcurrency());
+        BlockingQueue<ScanBatch> shared = order == ScanOrder.UNORDERED
+                ? new ArrayBlockingQueue<>(SCAN_QUEUE_CAPACITY * window)
+                : null;
+        List<BlockingQueue<ScanBatch>> queues = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            queues.add(shared != null ? shared : new ArrayBlockingQueue<>(SCAN_QUEUE_CAPACITY));
+        }
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        try {
+            int submitted = 0;
+            for (; submitted < window; submitted++) {
+                submitPartition(chunks.get(submitted), queues.get(submitted), cancelled);
+            }
+
+            long count = 0;
+            int finished = 0;
+            while (finished < chunks.size()) {
+                ScanBatch batch = (shared != null ? shared : queues.get(finished)).take();
+                batch.rethrowFailure();
+                if (batch.rows == null) { //파티션 끝 -> 다음 파티션 제출
+                    finished++;
+                    if (submitted < chunks.size()) {
+                        submitPartition(chunks.get(submitted), queues.get(submitted), cancelled);
+                        submitted++;
+                    }
+                    continue;
+                }
+                batch.rows.forEach(sink);
+                count += batch.rows.size();
+            }
+            return count;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("파티션 조회가 중단되었습니다.", e);
+        } finally {
+            cancelled.set(true); //실패 시 남은 파티션은 큐를 기다리지 않고 끝낸다.
+        }
+    }
+
+    private void submitPartition(Predicate[] where, BlockingQueue<ScanBatch> queue, AtomicBoolean cancelled) {
+        CompletableFuture<Void> future = scanExecutor.submit(() -> {
+            scanPartition(where, queue, cancelled);
+            return null;
+        });
+        try {
+            future.getNow(null); //실행기 큐가 가득 차면 바로 실패한다.
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    //작업 쓰레드, 실패도 큐로 넘긴다. (호출한 쓰레드가 기다리지 않도록)
+    private void scanPartition(Predicate[] where, BlockingQueue<ScanBatch> queue, AtomicBoolean cancelled) {
+        QMemberDto memberDto = new QMemberDto(member.username, member.age);
+        try {
+            Boolean completed = partitionTemplate.execute(status -> {
+                Long lastId = null;
+                List<Tuple> page;
+                do {
+                    page = queryFactory
+                            .select(member.id, memberDto)
+                            .from(member)
+                            .where(where)
+                            .where(lastId != null ? member.id.gt(lastId) : null)
+                            .orderBy(member.id.asc())
+                            .limit(SCAN_PAGE_SIZE)
+                            .fetch();
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    List<MemberDto> rows = new ArrayList<>(page.size());
+                    for (Tuple row : page) {
+                        rows.add(row.get(memberDto));
+                    }
+                    lastId = page.get(page.size() - 1).get(member.id);
+                    if (!handOff(queue, new ScanBatch(rows, null), cancelled)) {
+                        return false;
+                    }
+                } while (page.size() == SCAN_PAGE_SIZE);
+                return true;
+            });
+            if (Boolean.TRUE.equals(completed)) {
+                handOff(queue, new ScanBatch(null, null), cancelled);
+            }
+        } catch (RuntimeException | Error e) {
+            handOff(queue, new ScanBatch(null, e), cancelled);
+        }
+    }
+
+    private static boolean handOff(BlockingQueue<ScanBatch> queue, ScanBatch batch, AtomicBoolean cancelled) {
+        try {
+            while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                if (cancelled.get()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    //rows, failure 모두 null이면 파티션 끝
+    private static final class ScanBatch {
+
+        private final List<MemberDto> rows;
+        private final Throwable failure;
+
+        private ScanBatch(List<MemberDto> rows, Throwable failure) {
+            this.rows = rows;
+            this.failure = failure;
+        }
+
+        void rethrowFailure() {
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public long bulkAddAge(MemberSearchCondition condition, int amount, BulkSyncMode syncMode) {
+        return executeBulk(bulkWhere(condition, null), syncMode, Operation.ADD_AGE, addAge(amount));
+    }
+
+    @Override
+    @Transactional
+    public long bulkRename(MemberSearchCondition condition, String username, BulkSyncMode syncMode) {
+        return executeBulk(bulkWhere(condition, null), syncMode, Operation.RENAME, rename(username));
+    }
+
+    @Override
+    @Transactional
+    public long bulkDelete(MemberSearchCondition condition, BulkSyncMode syncMode) {
+        return executeBulk(bulkWhere(condition, null), syncMode, Operation.DELETE, delete());
+    }
+
+    @Override
+    public long bulkAddAge(MemberSearchCondition condition, int amount, BulkSyncMode syncMode, int chunkSize) {
+        return executeInChunks(condition, syncMode, chunkSize, Operation.ADD_AGE, addAge(amount));
+    }
+
+    @Override
+    public long bulkRename(MemberSearchCondition condition, String username, BulkSyncMode syncMode, int chunkSize) {
+        return executeInChunks(condition, syncMode, chunkSize, Operation.RENAME, rename(username));
+    }
+
+    @Override
+    public long bulkDelete(MemberSearchCondition condition, BulkSyncMode syncMode, int chunkSize) {
+        return executeInChunks(condition, syncMode, chunkSize, Operation.DELETE, delete());
+    }
+
+    private Function<Predicate[], Long> addAge(int amount) {
+        return where -> queryFactory
+                .update(member)
+                .set(member.age, member.age.add(amount))
+                .where(where)
+                .execute();
+    }
+
+    private Function<Predicate[], Long> rename(String username) {
+        return where -> queryFactory
+                .update(member)
+                .set(member.username, username)
+                .where(where)
+                .execute();
+    }
+
+    private Function<Predicate[], Long> delete() {
+        return where -> queryFactory
+                .delete(member)
+                .where(where)
+                .execute();
+    }
+
+    private long executeInChunks(MemberSearchCondition condition, BulkSyncMode syncMode, int chunkSize,
+                                 Operation operation, Function<Predicate[], Long> statement) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize는 1 이상이어야 합니다: " + chunkSize);
+        }
+
+        Tuple range = queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .where(bulkWhere(condition, null))
+                .fetchOne();
+        Long minId = range != null ? range.get(member.id.min()) : null;
+        Long maxId = range != null ? range.get(member.id.max()) : null;
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+
+        long total = 0;
+        for (long from = minId; from <= maxId; from += chunkSize) {
+            Predicate[] where = bulkWhere(condition, member.id.between(from, from + chunkSize - 1));
+            Long count = transactionTemplate.execute(status -> executeBulk(where, syncMode, operation, statement));
+            total += count != null ? count : 0;
+        }
+        return total;
+    }
+
+    private long executeBulk(Predicate[] where, BulkSyncMode syncMode, Operation operation,
+                             Function<Predicate[], Long> statement) {
+        em.flush(); //쓰기 지연된 변경을 먼저 DB에 반영
+        bulkListeners.orderedStream().forEach(listener -> listener.beforeBulk(operation, where));
+
+        List<Long> affectedIds = syncMode == BulkSyncMode.EVICT_AFFECTED
+                ? queryFactory.select(member.id).from(member).where(where).fetch() //변경 전 조건으로 대상을 구해둔다.
+                : Collections.emptyList();
+
+        long count = statement.apply(where);
+        resultCache.invalidate(Member.class); //벌크 연산은 엔티티 이벤트가 발생하지 않는다.
+
+        if (syncMode == BulkSyncMode.CLEAR) {
+            em.clear();
+        } else {
+            evict(affectedIds);
+        }
+        return count;
+    }
+
+    //영속성 컨텍스트에 올라와 있는 대상 회원만 준영속 상태로 만든다.
+    private void evict(Collection<Long> memberIds) {
+        if (memberIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>(memberIds);
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Member && ids.contains(entry.getValue().getId())) {
+                em.detach(entry.getKey());
+            }
+        }
+    }
+
+    //벌크 update/delete에는 조인을 쓸 수 없어서 팀 조건은 서브쿼리로 건다.
+    //partition: 청크/파티션 조건 (id 범위, team_id in), 없으면 null
+    private Predicate[] bulkWhere(MemberSearchCondition condition, Predicate partition) {
+        return new Predicate[]{
+                usernameEq(condition.getUsername()),
+                teamNameIn(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe()),
+                partition
+        };
+    }
+
+    private BooleanExpression teamNameIn(String teamName) {
+        return hasText(teamName)
+                ? member.team.id.in(JPAExpressions.select(team.id).from(team).where(team.name.eq(teamName)))
+                : null;
+    }
+
+    //정렬 조건이 없으면 member_id 순으로 고정 (페이지 사이에 순서가 흔들리지 않도록)
+    //클라이언트가 보낸 Sort는 SORTABLE에 있는 속성만 허용한다.
+    private OrderSpecifier<?>[] orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return new OrderSpecifier<?>[]{member.id.asc()};
+        }
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            ComparableExpressionBase<?> path = SORTABLE.get(order.getProperty());
+            if (path == null) {
+                throw new IllegalArgumentException("정렬할 수 없는 속성입니다: " + order.getProperty());
+            }
+            orders.add(order.isAscending() ? path.asc() : path.desc());
+        }
+        return orders.toArray(new OrderSpecifier<?>[0]);
+    }
+
+    //엔티티를 거치지 않고 DTO로 바로 조회한다. (영속성 컨텍스트, 스냅샷 x)
+    private <T> JPAQuery<T> searchQuery(Expression<T> projection, MemberSearchCondition condition) {
+        return applyCondition(queryFactory.select(projection).from(member), condition);
+    }
+
+    //조건은 템플릿과 같은 곳(MemberSearchTemplate)에서 만든다.
+    private <T> JPAQuery<T> applyCondition(JPAQuery<T> query, MemberSearchCondition condition) {
+        return MemberSearchTemplate.where(query, condition);
+    }
+
+    //(age, member_id) > (:age, :memberId)
+    private BooleanExpression after(MemberKeysetCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return member.age.gt(cursor.getAge())
+                .or(member.age.eq(cursor.getAge()).and(member.id.gt(cursor.getMemberId())));
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
     }
 }
@@ -0,0 +1,16 @@
+package study.querydsl.repository;
+
+import lombok.Data;
+
+/**
+ * 회원 검색 조건
+ * null인 조건은 where절에서 제외된다.
+ */
+@Data
+public class MemberSearchCondition {
+
+    private String username;
+    private String teamName;
+    private Integer ageGoe; //나이 >=
+    private Integer ageLoe; //나이 <=
+}
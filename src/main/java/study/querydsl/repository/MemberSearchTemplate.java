@@ -0,0 +1,144 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import study.querydsl.dto.MemberDto;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * MemberSearchCondition 조회 조건
+ * 값으로 바로 거는 동적 쿼리(MemberRepositoryImpl)와 템플릿이 같은 where(...)를 쓴다.
+ * 템플릿은 null이 아닌 조건의 조합(비트마스크)마다 JPQL 문자열을 한 번만 만들어(Querydsl 직렬화) 두고
+ * 이후에는 em.createQuery(jpql)에 값만 바인딩한다. 호출마다 Querydsl 쿼리를 복제하거나 직렬화하지 않고,
+ * 같은 문자열이므로 Hibernate 쿼리 플랜 캐시에 적중한다.
+ */
+final class MemberSearchTemplate {
+
+    static final String NAME = "memberSearch";
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+
+    //직렬화할 때만 쓰는 자리 값, 같은 값은 같은 ?n으로 합쳐지므로 서로 달라야 한다.
+    private static final Expression<String> USERNAME_SLOT = Expressions.constant("username");
+    private static final Expression<String> TEAM_NAME_SLOT = Expressions.constant("teamName");
+    private static final Expression<Integer> AGE_GOE_SLOT = Expressions.constant(Integer.MIN_VALUE);
+    private static final Expression<Integer> AGE_LOE_SLOT = Expressions.constant(Integer.MAX_VALUE);
+
+    private MemberSearchTemplate() {
+    }
+
+    static int mask(MemberSearchCondition condition) {
+        int mask = 0;
+        if (hasText(condition.getUsername())) {
+            mask |= USERNAME;
+        }
+        if (hasText(condition.getTeamName())) {
+            mask |= TEAM_NAME;
+        }
+        if (condition.getAgeGoe() != null) {
+            mask |= AGE_GOE;
+        }
+        if (condition.getAgeLoe() != null) {
+            mask |= AGE_LOE;
+        }
+        return mask;
+    }
+
+    /**
+     * 조건 값을 그대로 건다. (상수로 바인딩)
+     */
+    static <T> JPAQuery<T> where(JPAQuery<T> query, MemberSearchCondition condition) {
+        return where(query, mask(condition),
+                constant(condition.getUsername()),
+                constant(condition.getTeamName()),
+                constant(condition.getAgeGoe()),
+                constant(condition.getAgeLoe()));
+    }
+
+    /**
+     * 조건 조합의 JPQL, 생성자 표현식 없이 (username, age)를 select 하고 행은 Compiled에서 MemberDto로 바꾼다.
+     * em은 JPQL 템플릿(Hibernate)을 고를 때만 쓴다.
+     */
+    static Compiled compile(EntityManager em, int mask) {
+        JPAQuery<Tuple> query = new JPAQuery<Void>(em)
+                .select(member.username, member.age)
+                .from(member);
+        String jpql = where(query, mask, USERNAME_SLOT, TEAM_NAME_SLOT, AGE_GOE_SLOT, AGE_LOE_SLOT).toString();
+        return new Compiled(mask, jpql);
+    }
+
+    /**
+     * 만들어 둔 JPQL과 조건 조합, 파라미터는 where 순서대로 ?1, ?2 ... 이다.
+     */
+    static final class Compiled {
+
+        private final int mask;
+        private final String jpql;
+
+        private Compiled(int mask, String jpql) {
+            this.mask = mask;
+            this.jpql = jpql;
+        }
+
+        String getJpql() {
+            return jpql;
+        }
+
+        List<MemberDto> fetch(EntityManager em, MemberSearchCondition condition) {
+            TypedQuery<Object[]> query = em.createQuery(jpql, Object[].class);
+            int position = 1;
+            if ((mask & USERNAME) != 0) {
+                query.setParameter(position++, condition.getUsername());
+            }
+            if ((mask & TEAM_NAME) != 0) {
+                query.setParameter(position++, condition.getTeamName());
+            }
+            if ((mask & AGE_GOE) != 0) {
+                query.setParameter(position++, condition.getAgeGoe());
+            }
+            if ((mask & AGE_LOE) != 0) {
+                query.setParameter(position, condition.getAgeLoe());
+            }
+
+            List<Object[]> rows = query.getResultList();
+            List<MemberDto> result = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                result.add(new MemberDto((String) row[0], (Integer) row[1]));
+            }
+            return result;
+        }
+    }
+
+    //team 조건이 있을 때만 team을 조인한다. mask에 없는 조건의 인자는 쓰지 않는다.
+    private static <T> JPAQuery<T> where(JPAQuery<T> query, int mask, Expression<String> username,
+                                         Expression<String> teamName, Expression<Integer> ageGoe,
+                                         Expression<Integer> ageLoe) {
+        if ((mask & TEAM_NAME) != 0) {
+            query.join(member.team, team);
+        }
+
+        return query.where(
+                (mask & USERNAME) != 0 ? member.username.eq(username) : null,
+                (mask & TEAM_NAME) != 0 ? team.name.eq(teamName) : null,
+                (mask & AGE_GOE) != 0 ? member.age.goe(ageGoe) : null,
+                (mask & AGE_LOE) != 0 ? member.age.loe(ageLoe) : null);
+    }
+
+    //mask에 없는 조건은 null (쿼리에 들어가지 않는다)
+    private static <T> Expression<T> constant(T value) {
+        return value != null ? Expressions.constant(value) : null;
+    }
+}
@@ -0,0 +1,17 @@
+package study.querydsl.repository;
+
+/**
+ * 파티션 병렬 조회 결과를 sink에 넘기는 순서
+ */
+public enum ScanOrder {
+
+    /**
+     * 파티션 순서대로 (파티션 안에서는 member_id 오름차순), 앞 파티션이 끝날 때까지 뒤 파티션 결과는 대기
+     */
+    ORDERED,
+
+    /**
+     * 먼저 끝난 파티션부터
+     */
+    UNORDERED
+}
@@ -0,0 +1,102 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.entity.Team;
+import study.querydsl.support.QueryResultCache;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@Repository
+public class TeamJpaRepository {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final QueryResultCache resultCache;
+
+    public TeamJpaRepository(EntityManager em, JPAQueryFactory queryFactory, QueryResultCache resultCache) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.resultCache = resultCache;
+    }
+
+    public void save(Team team) {
+        em.persist(team);
+        resultCache.invalidate(Team.class);
+    }
+
+    /**
+     * chunkSize 건마다 flush(배치 insert) 후 영속성 컨텍스트를 비운다.
+     */
+    public void saveAll(Collection<Team> teams, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize는 1 이상이어야 합니다: " + chunkSize);
+        }
+        int count = 0;
+        for (Team team : teams) {
+            em.persist(team);
+            if (++count % chunkSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        resultCache.invalidate(Team.class);
+    }
+
+    public Optional<Team> findById(Long id) {
+        return Optional.ofNullable(em.find(Team.class, id));
+    }
+
+    /**
+     * 팀 페이지 조회 + 해당 팀들의 회원을 in절로 한 번에 조회 (쿼리 2번)
+     * 컬렉션 페치 조인을 쓰지 않아서 페이징이 DB에서 되고 카테시안 곱도 생기지 않는다.
+     */
+    public List<TeamMembersDto> findTeamsWithMembers(Pageable pageable) {
+        List<Tuple> teams = queryFactory
+                .select(team.id, team.name)
+                .from(team)
+                .orderBy(team.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        Map<Long, TeamMembersDto> result = new LinkedHashMap<>();
+        for (Tuple tuple : teams) {
+            Long teamId = tuple.get(team.id);
+            result.put(teamId, new TeamMembersDto(teamId, tuple.get(team.name)));
+        }
+        if (result.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        QMemberDto memberDto = new QMemberDto(member.username, member.age);
+        List<Tuple> members = queryFactory
+                .select(member.team.id, memberDto)
+                .from(member)
+                .where(member.team.id.in(result.keySet()))
+                .orderBy(member.id.asc())
+                .fetch();
+
+        for (Tuple tuple : members) {
+            MemberDto dto = tuple.get(memberDto);
+            result.get(tuple.get(member.team.id)).getMembers().add(dto);
+        }
+        return new ArrayList<>(result.values());
+    }
+}
@@ -0,0 +1,190 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.TeamStats;
+import study.querydsl.support.ColumnarFetch;
+import study.querydsl.support.NumericColumns;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.entity.QTeamStats.teamStats;
+
+/**
+ * 팀별 회원 나이 통계
+ * querydsl.team-stats.summary=true면 요약 테이블(TeamStats)에서 읽는다.
+ * 요약 테이블은 커밋 직전에 이번 트랜잭션에서 바뀐 팀만 다시 계산한다. (회원 저장/삭제, 나이/팀 변경, 벌크 연산)
+ * false면 매번 member를 group by 한다.
+ */
+@Repository
+public class TeamStatsRepository implements MemberBulkListener {
+
+    //team_id 기준 집계 (member 인덱스 idx_member_team_id)
+    private static final String INSERT_SUMMARY = "insert into TeamStats (teamId, memberCount, ageSum, ageMax, ageMin)"
+            + " select m.team.id, count(m), sum(m.age), max(m.age), min(m.age) from Member m where m.team is not null";
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final boolean summaryEnabled;
+
+    public TeamStatsRepository(EntityManager em, JPAQueryFactory queryFactory,
+                               @Value("${querydsl.team-stats.summary:false}") boolean summaryEnabled) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.summaryEnabled = summaryEnabled;
+    }
+
+    @Transactional(readOnly = true)
+    public List<TeamStatsDto> findAll() {
+        return summaryEnabled ? fromSummary(null) : aggregate(null);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<TeamStatsDto> findByTeamId(Long teamId) {
+        List<TeamStatsDto> result = summaryEnabled ? fromSummary(teamId) : aggregate(teamId);
+        return result.stream().findFirst();
+    }
+
+    /**
+     * 팀 회원 나이 (분포 계산용), 행마다 Integer를 만들지 않고 int[]로 읽는다.
+     */
+    @Transactional(readOnly = true)
+    public int[] findAges(Long teamId) {
+        return ColumnarFetch.fetchInts(queryFactory
+                .select(member.age)
+                .from(member)
+                .where(member.team.id.eq(teamId)));
+    }
+
+    /**
+     * 전체 회원의 (team_id, age), team_id 순서. 컬럼 0: team_id, 컬럼 1: age
+     */
+    @Transactional(readOnly = true)
+    public NumericColumns findTeamAges() {
+        return ColumnarFetch.fetchColumns(queryFactory
+                .select(member.team.id, member.age)
+                .from(member)
+                .where(member.team.isNotNull())
+                .orderBy(member.team.id.asc()));
+    }
+
+    /**
+     * 요약 테이블을 처음부터 다시 만든다. (요약 테이블을 켜기 전 데이터, 벌크 연산을 리포지토리 밖에서 실행한 경우)
+     */
+    @Transactional
+    public void rebuildSummary() {
+        em.createQuery("delete from TeamStats").executeUpdate();
+        em.createQuery(INSERT_SUMMARY + " group by m.team.id").executeUpdate();
+    }
+
+    /**
+     * 현재 트랜잭션에서 통계가 바뀐 팀, 커밋 직전(flush 이후)에 요약 테이블에 반영한다.
+     */
+    public void markDirty(Long teamId) {
+        if (!summaryEnabled || teamId == null || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        dirtyTeams().add(teamId);
+    }
+
+    @Override
+    public void beforeBulk(Operation operation, Predicate[] where) {
+        if (!summaryEnabled || operation == Operation.RENAME) {
+            return;
+        }
+        List<Long> teamIds = queryFactory
+                .select(member.team.id).distinct()
+                .from(member)
+                .where(where)
+                .fetch();
+        teamIds.forEach(this::markDirty);
+    }
+
+    private List<TeamStatsDto> aggregate(Long teamId) {
+        return queryFactory
+                .select(team.id, team.name, member.count(), member.age.sum(), member.age.max(), member.age.min())
+                .from(member)
+                .join(member.team, team)
+                .where(teamId != null ? team.id.eq(teamId) : null)
+                .groupBy(team.id, team.name)
+                .orderBy(team.id.asc())
+                .fetch()
+                .stream()
+                .map(row -> new TeamStatsDto(row.get(0, Long.class), row.get(1, String.class), number(row, 2),
+                        number(row, 3), row.get(4, Integer.class), row.get(5, Integer.class)))
+                .collect(Collectors.toList());
+    }
+
+    private List<TeamStatsDto> fromSummary(Long teamId) {
+        return queryFactory
+                .select(teamStats, team.name)
+                .from(teamStats)
+                .join(team).on(team.id.eq(teamStats.teamId))
+                .where(teamId != null ? teamStats.teamId.eq(teamId) : null)
+                .orderBy(teamStats.teamId.asc())
+                .fetch()
+                .stream()
+                .map(row -> {
+                    TeamStats stats = row.get(teamStats);
+                    return new TeamStatsDto(stats.getTeamId(), row.get(team.name), stats.getMemberCount(),
+                            stats.getAgeSum(), stats.getAgeMax(), stats.getAgeMin());
+                })
+                .collect(Collectors.toList());
+    }
+
+    //count, sum은 Long으로 올 수 있다.
+    private static long number(Tuple row, int index) {
+        Number value = row.get(index, Number.class);
+        return value != null ? value.longValue() : 0;
+    }
+
+    /**
+     * 트랜잭션(세션)마다 하나
+     * 스프링 beforeCommit은 커밋 시점 flush보다 먼저 실행되므로 Hibernate의 커밋 직전 처리(flush 이후)에 건다.
+     */
+    @SuppressWarnings("unchecked")
+    private Set<Long> dirtyTeams() {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        Set<Long> teamIds = (Set<Long>) TransactionSynchronizationManager.getResource(session);
+        if (teamIds == null) {
+            Set<Long> created = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(session, created);
+            ActionQueue actionQueue = session.getActionQueue();
+            actionQueue.registerProcess((BeforeTransactionCompletionProcess) s -> refreshSummary(s, created));
+            actionQueue.registerProcess((AfterTransactionCompletionProcess) (success, s) ->
+                    TransactionSynchronizationManager.unbindResourceIfPossible(session));
+            teamIds = created;
+        }
+        return teamIds;
+    }
+
+    //엔티티를 거치지 않고 바뀐 팀의 요약 행만 지우고 다시 집계해서 넣는다. (flush가 끝난 뒤라 엔티티 변경은 반영되지 않는다)
+    private static void refreshSummary(SessionImplementor session, Collection<Long> teamIds) {
+        List<Long> ids = new ArrayList<>(teamIds);
+        session.createQuery("delete from TeamStats s where s.teamId in :teamIds")
+                .setParameter("teamIds", ids)
+                .executeUpdate();
+        session.createQuery(INSERT_SUMMARY + " and m.team.id in :teamIds group by m.team.id")
+                .setParameter("teamIds", ids)
+                .executeUpdate();
+    }
+}
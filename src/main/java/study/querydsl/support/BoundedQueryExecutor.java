@@ -0,0 +1,119 @@
+package study.querydsl.support;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 조회 쿼리를 비동기로 실행한다. 동시에 실행되는 쿼리 수는 커넥션 풀 크기를 넘지 않는다.
+ * 플랫폼 쓰레드 풀 또는 (JDK 21+) 가상 쓰레드 + 세마포어로 동시 실행 수를 제한한다.
+ * <p>
+ * Executor를 구현하지 않는다. (스프링 부트 기본 applicationTaskExecutor를 대체하지 않도록)
+ */
+public class BoundedQueryExecutor implements DisposableBean {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    private BoundedQueryExecutor(ExecutorService executor, Semaphore permits, int maxConcurrency) {
+        this.executor = executor;
+        this.permits = permits;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public static BoundedQueryExecutor platformThreads(int poolSize, int queueCapacity) {
+        return platformThreads("member-query", poolSize, queueCapacity);
+    }
+
+    /**
+     * @param name 쓰레드 이름 앞부분 (name-1, name-2 ...)
+     */
+    public static BoundedQueryExecutor platformThreads(String name, int poolSize, int queueCapacity) {
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return new BoundedQueryExecutor(executor, null, poolSize);
+    }
+
+    /**
+     * 가상 쓰레드를 지원하지 않는 JDK면 플랫폼 쓰레드 풀을 사용한다.
+     */
+    public static BoundedQueryExecutor virtualThreads(int maxConcurrency, int queueCapacity) {
+        return virtualThreads("member-query", maxConcurrency, queueCapacity);
+    }
+
+    public static BoundedQueryExecutor virtualThreads(String name, int maxConcurrency, int queueCapacity) {
+        try {
+            Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            //fair: 먼저 제출된 작업이 먼저 실행된다. (플랫폼 쓰레드 풀의 FIFO 큐와 같게)
+            return new BoundedQueryExecutor((ExecutorService) factory.invoke(null), new Semaphore(maxConcurrency, true),
+                    maxConcurrency);
+        } catch (ReflectiveOperationException e) {
+            return platformThreads(name, maxConcurrency, queueCapacity);
+        }
+    }
+
+    /**
+     * 타임아웃 없이 실행한다. (작업이 직접 끝을 관리하는 긴 조회, 예: 파티션 스캔)
+     * 실행기 큐가 가득 차면 RejectedExecutionException으로 이미 완료된 future를 돌려준다.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        Supplier<T> bounded = permits == null ? task : () -> {
+            permits.acquireUninterruptibly();
+            try {
+                return task.get();
+            } finally {
+                permits.release();
+            }
+        };
+        try {
+            return CompletableFuture.supplyAsync(bounded, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+    }
+
+    /**
+     * timeout이 지나면 TimeoutException으로 완료된다.
+     * 실행 중인 쿼리는 트랜잭션 타임아웃(statement timeout)으로 정리된다.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task, Duration timeout) {
+        return submit(task).orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 동시에 실행되는 작업 수 (플랫폼 쓰레드 수 또는 세마포어 크기)
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public boolean isVirtual() {
+        return permits != null;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.support;
+
+import org.springframework.beans.factory.ObjectProvider;
+import study.querydsl.entity.ChangeEvent.EntityType;
+import study.querydsl.entity.ChangeEvent.Type;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.ChangeFeedRepository;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Member/Team 엔티티 리스너, 변경을 ChangeFeedRepository에 넘긴다. (flush 시점에 호출)
+ * 스프링 부트가 Hibernate에 SpringBeanContainer를 등록하므로 스프링이 생성한다.
+ * EntityManagerFactory 생성 중에 만들어지므로 리포지토리는 처음 쓸 때 가져온다.
+ */
+public class ChangeFeedEntityListener {
+
+    private final ObjectProvider<ChangeFeedRepository> changeFeedProvider;
+    private volatile ChangeFeedRepository changeFeed;
+
+    public ChangeFeedEntityListener(ObjectProvider<ChangeFeedRepository> changeFeedProvider) {
+        this.changeFeedProvider = changeFeedProvider;
+    }
+
+    @PostPersist
+    public void postPersist(Object entity) {
+        if (entity instanceof Member) {
+            ((Member) entity).consumeTeamChanged(); //생성자에서 팀을 지정한 것은 INSERT에 포함
+        }
+        record(entity, Type.INSERT);
+    }
+
+    @PostUpdate
+    public void postUpdate(Object entity) {
+        boolean teamChanged = entity instanceof Member && ((Member) entity).consumeTeamChanged();
+        record(entity, teamChanged ? Type.TEAM_CHANGE : Type.UPDATE);
+    }
+
+    @PostRemove
+    public void postRemove(Object entity) {
+        record(entity, Type.DELETE);
+    }
+
+    private void record(Object entity, Type changeType) {
+        ChangeFeedRepository feed = changeFeed();
+        if (feed == null || !feed.isEnabled()) {
+            return;
+        }
+        if (entity instanceof Member) {
+            Member member = (Member) entity;
+            Team team = member.getTeam();
+            feed.record(EntityType.MEMBER, member.getId(), changeType, team != null ? team.getId() : null);
+        } else if (entity instanceof Team) {
+            Team team = (Team) entity;
+            feed.record(EntityType.TEAM, team.getId(), changeType, team.getId());
+        }
+    }
+
+    private ChangeFeedRepository changeFeed() {
+        ChangeFeedRepository feed = changeFeed;
+        if (feed == null) {
+            feed = changeFeedProvider.getIfAvailable();
+            changeFeed = feed;
+        }
+        return feed;
+    }
+}
@@ -0,0 +1,269 @@
+package study.querydsl.support;
+
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.engine.query.spi.HQLQueryPlan;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.hql.spi.ParameterInformation;
+import org.hibernate.hql.spi.ParameterTranslations;
+import org.hibernate.hql.spi.QueryTranslator;
+import org.hibernate.query.spi.QueryImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+import javax.persistence.Parameter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 숫자 프로젝션을 List&lt;Integer&gt;, List&lt;Tuple&gt; 대신 원시 타입 배열로 읽는다.
+ * Querydsl이 만든 JPQL을 Hibernate 쿼리 플랜(캐시)으로 SQL로 바꾸고, 같은 커넥션에서 JDBC로 실행해서
+ * ResultSet.getLong/getDouble 값을 배열에 바로 담는다. (Hibernate 커서는 행마다 Object[]와 박싱 값을 만든다)
+ * <ul>
+ * <li>정수 배열에는 정수 타입 프로젝션만 받는다. 실제 컬럼이 실수면 IllegalArgumentException (잘라내지 않는다)</li>
+ * <li>null은 0으로 담긴다.</li>
+ * <li>limit/offset, 컬렉션 파라미터(in 절)는 지원하지 않는다. (Hibernate가 실행 시점에 SQL을 바꾸는 경우)</li>
+ * <li>JDBC로 직접 읽으므로 Hibernate auto flush가 없다. 플러시 모드가 AUTO/ALWAYS면 조회 전에 flush 한다.</li>
+ * </ul>
+ * 실행하는 sql은 설정된 StatementInspector(QueryCountInspector)를 거친다. 트랜잭션 안에서 호출해야 한다.
+ */
+public final class ColumnarFetch {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int FETCH_SIZE = 1000;
+
+    private ColumnarFetch() {
+    }
+
+    public static int[] fetchInts(JPAQuery<? extends Number> query) {
+        requireIntegral(query.getMetadata().getProjection());
+        return select(query, rs -> {
+            requireIntegralColumn(rs.getMetaData(), 1);
+            int[] buffer = new int[INITIAL_CAPACITY];
+            int size = 0;
+            while (rs.next()) {
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, size * 2);
+                }
+                buffer[size++] = Math.toIntExact(rs.getLong(1));
+            }
+            return Arrays.copyOf(buffer, size);
+        });
+    }
+
+    public static long[] fetchLongs(JPAQuery<? extends Number> query) {
+        requireIntegral(query.getMetadata().getProjection());
+        return select(query, rs -> {
+            requireIntegralColumn(rs.getMetaData(), 1);
+            long[] buffer = new long[INITIAL_CAPACITY];
+            int size = 0;
+            while (rs.next()) {
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, size * 2);
+                }
+                buffer[size++] = rs.getLong(1);
+            }
+            return Arrays.copyOf(buffer, size);
+        });
+    }
+
+    /**
+     * 실수 프로젝션 (avg() 등), 정수 프로젝션도 받는다.
+     */
+    public static double[] fetchDoubles(JPAQuery<? extends Number> query) {
+        requireNumeric(query.getMetadata().getProjection());
+        return select(query, rs -> {
+            double[] buffer = new double[INITIAL_CAPACITY];
+            int size = 0;
+            while (rs.next()) {
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, size * 2);
+                }
+                buffer[size++] = rs.getDouble(1);
+            }
+            return Arrays.copyOf(buffer, size);
+        });
+    }
+
+    /**
+     * select 절의 숫자 컬럼들을 컬럼별 배열로 읽는다. select(a, b, ...) 형태만 가능
+     * 컬럼의 선언 타입이 정수면 long[], 실수(Double, Float, BigDecimal)면 double[]에 담는다.
+     */
+    public static NumericColumns fetchColumns(JPAQuery<Tuple> query) {
+        Expression<?> projection = query.getMetadata().getProjection();
+        if (!(projection instanceof FactoryExpression)) {
+            throw new IllegalArgumentException("select(a, b, ...) 형태의 쿼리만 가능합니다: " + projection);
+        }
+        List<Expression<?>> args = ((FactoryExpression<?>) projection).getArgs();
+        int columnCount = args.size();
+        boolean[] floating = new boolean[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            requireNumeric(args.get(i));
+            floating[i] = isFloating(args.get(i).getType());
+        }
+
+        return select(query, rs -> {
+            long[][] longs = new long[columnCount][];
+            double[][] doubles = new double[columnCount][];
+            for (int i = 0; i < columnCount; i++) {
+                if (floating[i]) {
+                    doubles[i] = new double[INITIAL_CAPACITY];
+                } else {
+                    requireIntegralColumn(rs.getMetaData(), i + 1);
+                    longs[i] = new long[INITIAL_CAPACITY];
+                }
+            }
+
+            int capacity = INITIAL_CAPACITY;
+            int size = 0;
+            while (rs.next()) {
+                if (size == capacity) {
+                    capacity *= 2;
+                    for (int i = 0; i < columnCount; i++) {
+                        if (floating[i]) {
+                            doubles[i] = Arrays.copyOf(doubles[i], capacity);
+                        } else {
+                            longs[i] = Arrays.copyOf(longs[i], capacity);
+                        }
+                    }
+                }
+                for (int i = 0; i < columnCount; i++) {
+                    if (floating[i]) {
+                        doubles[i][size] = rs.getDouble(i + 1);
+                    } else {
+                        longs[i][size] = rs.getLong(i + 1);
+                    }
+                }
+                size++;
+            }
+            for (int i = 0; i < columnCount; i++) {
+                if (floating[i]) {
+                    doubles[i] = Arrays.copyOf(doubles[i], size);
+                } else {
+                    longs[i] = Arrays.copyOf(longs[i], size);
+                }
+            }
+            return new NumericColumns(longs, doubles, size);
+        });
+    }
+
+    @FunctionalInterface
+    private interface ResultSetReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    private static <T> T select(JPAQuery<?> query, ResultSetReader<T> reader) {
+        QueryModifiers modifiers = query.getMetadata().getModifiers();
+        if (modifiers.isRestricting()) {
+            throw new IllegalArgumentException("limit/offset은 지원하지 않습니다: " + modifiers);
+        }
+        QueryImplementor<?> hibernateQuery = query.createQuery().unwrap(QueryImplementor.class);
+        SharedSessionContractImplementor session = hibernateQuery.getProducer();
+        SessionFactoryImplementor factory = session.getFactory();
+        QueryTranslator translator = translate(factory, hibernateQuery.getQueryString());
+        String sql = inspect(factory, translator.getSQLString());
+
+        if (session instanceof Session) {
+            FlushMode flushMode = ((Session) session).getHibernateFlushMode();
+            if (flushMode == FlushMode.AUTO || flushMode == FlushMode.ALWAYS) {
+                ((Session) session).flush();
+            }
+        }
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                ParameterTranslations translations = translator.getParameterTranslations();
+                for (Parameter<?> parameter : hibernateQuery.getParameters()) {
+                    bind(statement, session, translations, parameter, hibernateQuery.getParameterValue(parameter));
+                }
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = statement.executeQuery()) {
+                    return reader.read(rs);
+                }
+            }
+        });
+    }
+
+    //JPQL -> SQL, Hibernate 쿼리 플랜 캐시를 같이 쓴다.
+    private static QueryTranslator translate(SessionFactoryImplementor factory, String jpql) {
+        HQLQueryPlan plan = factory.getQueryPlanCache().getHQLQueryPlan(jpql, false, Collections.emptyMap());
+        QueryTranslator[] translators = plan.getTranslators();
+        if (translators.length != 1) {
+            throw new IllegalArgumentException("다형성 쿼리(SQL 여러 개)는 지원하지 않습니다: " + jpql);
+        }
+        return translators[0];
+    }
+
+    private static String inspect(SessionFactoryImplementor factory, String sql) {
+        StatementInspector inspector = factory.getSessionFactoryOptions().getStatementInspector();
+        String inspected = inspector != null ? inspector.inspect(sql) : null;
+        return inspected != null ? inspected : sql;
+    }
+
+    private static void bind(PreparedStatement statement, SharedSessionContractImplementor session,
+                             ParameterTranslations translations, Parameter<?> parameter, Object value)
+            throws SQLException {
+        if (value instanceof Collection || (value != null && value.getClass().isArray())) {
+            throw new IllegalArgumentException("컬렉션 파라미터는 지원하지 않습니다: " + parameter);
+        }
+        ParameterInformation information = parameter.getPosition() != null
+                ? translations.getPositionalParameterInformation(parameter.getPosition())
+                : translations.getNamedParameterInformation(parameter.getName());
+        Type type = information.getExpectedType();
+        for (int location : information.getSourceLocations()) { //0부터
+            if (type != null) {
+                type.nullSafeSet(statement, value, location + 1, session); //엔티티 파라미터 -> id
+            } else {
+                statement.setObject(location + 1, value);
+            }
+        }
+    }
+
+    private static void requireIntegral(Expression<?> expression) {
+        if (!isIntegral(expression.getType())) {
+            throw new IllegalArgumentException("정수 타입 프로젝션만 가능합니다: " + expression
+                    + " (" + expression.getType().getSimpleName() + "), 실수는 fetchDoubles");
+        }
+    }
+
+    private static void requireNumeric(Expression<?> expression) {
+        if (!isIntegral(expression.getType()) && !isFloating(expression.getType())) {
+            throw new IllegalArgumentException("숫자 타입 프로젝션만 가능합니다: " + expression
+                    + " (" + expression.getType().getSimpleName() + ")");
+        }
+    }
+
+    //선언 타입이 정수여도 실제 컬럼은 다를 수 있다. (예: 집계 결과) 행마다가 아니라 한 번만 확인한다.
+    private static void requireIntegralColumn(ResultSetMetaData metaData, int column) throws SQLException {
+        int type = metaData.getColumnType(column);
+        boolean floating = type == Types.FLOAT || type == Types.REAL || type == Types.DOUBLE
+                || ((type == Types.DECIMAL || type == Types.NUMERIC) && metaData.getScale(column) > 0);
+        if (floating) {
+            throw new IllegalArgumentException("정수 컬럼이 아닙니다: " + metaData.getColumnLabel(column)
+                    + " (" + metaData.getColumnTypeName(column) + ")");
+        }
+    }
+
+    private static boolean isIntegral(Class<?> type) {
+        return type == Long.class || type == Integer.class || type == Short.class || type == Byte.class
+                || type == BigInteger.class;
+    }
+
+    private static boolean isFloating(Class<?> type) {
+        return type == Double.class || type == Float.class || type == BigDecimal.class;
+    }
+}
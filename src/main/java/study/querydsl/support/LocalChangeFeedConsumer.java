@@ -0,0 +1,51 @@
+package study.querydsl.support;
+
+import study.querydsl.entity.ChangeEvent;
+import study.querydsl.repository.ChangeFeedRepository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 같은 프로세스 안에서 변경 피드를 읽는 소비자, 읽은 offset을 메모리에 들고 있다.
+ * poll()을 호출할 때마다(스케줄러, 테스트) 다음 배치를 handler에 넘긴다.
+ * handler가 예외를 던지면 offset은 그 배치 앞에 머문다. (다음 poll에서 다시 받는다)
+ */
+public class LocalChangeFeedConsumer {
+
+    private final ChangeFeedRepository changeFeed;
+    private final int batchSize;
+    private final Consumer<ChangeEvent> handler;
+    private long offset;
+
+    public LocalChangeFeedConsumer(ChangeFeedRepository changeFeed, int batchSize, Consumer<ChangeEvent> handler) {
+        this(changeFeed, batchSize, handler, 0);
+    }
+
+    public LocalChangeFeedConsumer(ChangeFeedRepository changeFeed, int batchSize, Consumer<ChangeEvent> handler,
+                                   long offset) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize는 1 이상이어야 합니다: " + batchSize);
+        }
+        this.changeFeed = changeFeed;
+        this.batchSize = batchSize;
+        this.handler = handler;
+        this.offset = offset;
+    }
+
+    /**
+     * @return 처리한 변경 수 (0이면 새 변경 없음)
+     */
+    public synchronized int poll() {
+        List<ChangeEvent> batch = changeFeed.readAfter(offset, batchSize);
+        batch.forEach(handler);
+        if (!batch.isEmpty()) {
+            offset = batch.get(batch.size() - 1).getId();
+        }
+        return batch.size();
+    }
+
+    public synchronized long getOffset() {
+        return offset;
+    }
+}
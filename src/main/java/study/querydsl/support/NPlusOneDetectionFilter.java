@@ -0,0 +1,42 @@
+package study.querydsl.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 요청 하나에서 같은 select가 threshold 번 이상 반복되면 경고 로그를 남긴다.
+ */
+@Slf4j
+public class NPlusOneDetectionFilter extends OncePerRequestFilter {
+
+    private final int threshold;
+
+    public NPlusOneDetectionFilter(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCount count = QueryCountHolder.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCountHolder.stop(count);
+            report(request, count);
+        }
+    }
+
+    private void report(HttpServletRequest request, QueryCount count) {
+        Map<String, Integer> repeated = count.getRepeatedSelects(threshold);
+        repeated.forEach((sql, times) -> log.warn("N+1 의심: {} {} -> table={} {}회 반복, {}\n{}",
+                request.getMethod(), request.getRequestURI(), QueryCount.tableOf(sql), times, count, sql));
+    }
+}
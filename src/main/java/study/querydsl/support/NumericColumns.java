@@ -0,0 +1,80 @@
+package study.querydsl.support;
+
+import java.util.Arrays;
+
+/**
+ * 숫자 컬럼 여러 개를 컬럼별 원시 타입 배열로 담는다. (행마다 Tuple/Object[]/박싱 객체를 남기지 않는다)
+ * 정수 컬럼(id, count, sum, ...)은 long[], 실수 컬럼(avg, ...)은 double[]에 담는다.
+ * null은 0으로 담긴다.
+ */
+public class NumericColumns {
+
+    private final long[][] longs; //실수 컬럼 자리는 null
+    private final double[][] doubles; //정수 컬럼 자리는 null
+    private final int size;
+
+    NumericColumns(long[][] longs, double[][] doubles, int size) {
+        this.longs = longs;
+        this.doubles = doubles;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int columnCount() {
+        return longs.length;
+    }
+
+    public boolean isFloating(int column) {
+        return doubles[column] != null;
+    }
+
+    public long getLong(int column, int row) {
+        checkRow(row);
+        return integral(column)[row];
+    }
+
+    public int getInt(int column, int row) {
+        return Math.toIntExact(getLong(column, row));
+    }
+
+    /**
+     * 정수 컬럼도 읽을 수 있다.
+     */
+    public double getDouble(int column, int row) {
+        checkRow(row);
+        return isFloating(column) ? doubles[column][row] : longs[column][row];
+    }
+
+    /**
+     * 정수 컬럼 배열 (복사본)
+     */
+    public long[] column(int column) {
+        return Arrays.copyOf(integral(column), size);
+    }
+
+    /**
+     * 실수 컬럼 배열 (복사본)
+     */
+    public double[] doubleColumn(int column) {
+        if (!isFloating(column)) {
+            throw new IllegalStateException("실수 컬럼이 아닙니다: " + column);
+        }
+        return Arrays.copyOf(doubles[column], size);
+    }
+
+    private long[] integral(int column) {
+        if (isFloating(column)) {
+            throw new IllegalStateException("정수 컬럼이 아닙니다: " + column);
+        }
+        return longs[column];
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row: " + row + ", size: " + size);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package study.querydsl.support;
+
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 쿼리 메타데이터를 순회하면서 바인딩될 값(상수, 파라미터)과 참조하는 엔티티 타입을 모은다.
+ * 서브쿼리도 포함한다.
+ */
+class QueryBindingCollector implements Visitor<Void, Void> {
+
+    private final List<Object> bindings = new ArrayList<>();
+    private final Set<Class<?>> entityTypes = new LinkedHashSet<>();
+    private Map<ParamExpression<?>, Object> params;
+
+    void collect(QueryMetadata metadata) {
+        if (params == null) {
+            params = metadata.getParams(); //파라미터 값은 최상위 쿼리에 설정된다.
+        }
+        for (JoinExpression join : metadata.getJoins()) {
+            accept(join.getTarget());
+            accept(join.getCondition());
+        }
+        accept(metadata.getProjection());
+        accept(metadata.getWhere());
+        for (Expression<?> groupBy : metadata.getGroupBy()) {
+            accept(groupBy);
+        }
+        accept(metadata.getHaving());
+        for (OrderSpecifier<?> orderBy : metadata.getOrderBy()) {
+            accept(orderBy.getTarget());
+        }
+    }
+
+    List<Object> getBindings() {
+        return bindings;
+    }
+
+    Set<Class<?>> getEntityTypes() {
+        return entityTypes;
+    }
+
+    private void accept(Expression<?> expr) {
+        if (expr != null) {
+            expr.accept(this, null);
+        }
+    }
+
+    @Override
+    public Void visit(Constant<?> expr, Void context) {
+        bindings.add(expr.getConstant());
+        return null;
+    }
+
+    @Override
+    public Void visit(FactoryExpression<?> expr, Void context) {
+        for (Expression<?> arg : expr.getArgs()) {
+            accept(arg);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(Operation<?> expr, Void context) {
+        for (Expression<?> arg : expr.getArgs()) {
+            accept(arg);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ParamExpression<?> expr, Void context) {
+        bindings.add(params.get(expr));
+        return null;
+    }
+
+    @Override
+    public Void visit(Path<?> expr, Void context) {
+        for (Path<?> path = expr; path != null; path = path.getMetadata().getParent()) {
+            if (path instanceof EntityPath) {
+                entityTypes.add(path.getType());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(SubQueryExpression<?> expr, Void context) {
+        collect(expr.getMetadata());
+        return null;
+    }
+
+    @Override
+    public Void visit(TemplateExpression<?> expr, Void context) {
+        for (Object arg : expr.getArgs()) {
+            if (arg instanceof Expression) {
+                accept((Expression<?>) arg);
+            } else {
+                bindings.add(arg);
+            }
+        }
+        return null;
+    }
+}
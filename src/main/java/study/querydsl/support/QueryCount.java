@@ -0,0 +1,93 @@
+package study.querydsl.support;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 하나의 작업 단위(요청, 트랜잭션, 테스트 블록) 동안 Hibernate가 실행한 sql 집계
+ * 같은 sql이 여러 번 실행되면 N+1을 의심할 수 있다.
+ */
+public class QueryCount {
+
+    private static final Pattern LEADING_COMMENT = Pattern.compile("^\\s*/\\*.*?\\*/\\s*", Pattern.DOTALL);
+    private static final Pattern FROM_TABLE = Pattern.compile("\\bfrom\\s+([\\w.]+)", Pattern.CASE_INSENSITIVE);
+
+    private int select;
+    private int insert;
+    private int update;
+    private int delete;
+    private int other;
+    private final Map<String, Integer> statements = new LinkedHashMap<>();
+
+    synchronized void record(String sql) {
+        String statement = LEADING_COMMENT.matcher(sql).replaceFirst("");
+        String lower = statement.toLowerCase(Locale.ROOT);
+        if (lower.startsWith("select") || lower.startsWith("with")) {
+            select++;
+        } else if (lower.startsWith("insert")) {
+            insert++;
+        } else if (lower.startsWith("update")) {
+            update++;
+        } else if (lower.startsWith("delete")) {
+            delete++;
+        } else {
+            other++;
+        }
+        statements.merge(statement, 1, Integer::sum);
+    }
+
+    public synchronized int getSelect() {
+        return select;
+    }
+
+    public synchronized int getInsert() {
+        return insert;
+    }
+
+    public synchronized int getUpdate() {
+        return update;
+    }
+
+    public synchronized int getDelete() {
+        return delete;
+    }
+
+    public synchronized int getTotal() {
+        return select + insert + update + delete + other;
+    }
+
+    /**
+     * 실행된 sql -> 실행 횟수 (실행 순서)
+     */
+    public synchronized Map<String, Integer> getStatements() {
+        return new LinkedHashMap<>(statements);
+    }
+
+    /**
+     * threshold 번 이상 반복된 동일한 select (sql -> 실행 횟수)
+     */
+    public synchronized Map<String, Integer> getRepeatedSelects(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        statements.forEach((sql, count) -> {
+            if (count >= threshold && sql.regionMatches(true, 0, "select", 0, 6)) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+
+    //로그용, select문의 첫 번째 from 테이블
+    public static String tableOf(String sql) {
+        Matcher matcher = FROM_TABLE.matcher(sql);
+        return matcher.find() ? matcher.group(1) : "unknown";
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "QueryCount(select=" + select + ", insert=" + insert + ", update=" + update
+                + ", delete=" + delete + ", other=" + other + ")";
+    }
+}
@@ -0,0 +1,49 @@
+package study.querydsl.support;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 현재 쓰레드에서 sql 집계 범위를 연다. 범위는 중첩될 수 있고 열려있는 모든 범위에 집계된다.
+ *
+ * <pre>
+ * QueryCount count = QueryCountHolder.start();
+ * try {
+ *     ...
+ * } finally {
+ *     QueryCountHolder.stop(count);
+ * }
+ * </pre>
+ */
+public final class QueryCountHolder {
+
+    private static final ThreadLocal<Deque<QueryCount>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private QueryCountHolder() {
+    }
+
+    public static QueryCount start() {
+        QueryCount count = new QueryCount();
+        SCOPES.get().push(count);
+        return count;
+    }
+
+    public static void stop(QueryCount count) {
+        Deque<QueryCount> scopes = SCOPES.get();
+        scopes.remove(count);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    static void record(String sql) {
+        Deque<QueryCount> scopes = SCOPES.get();
+        if (scopes.isEmpty()) {
+            SCOPES.remove(); //범위가 없으면 ThreadLocal을 남기지 않는다.
+            return;
+        }
+        for (QueryCount count : scopes) {
+            count.record(sql);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package study.querydsl.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hibernate가 sql을 준비할 때마다 호출된다. 열려있는 QueryCount 범위가 없으면 아무것도 하지 않는다.
+ * sampleRate(0~1) 비율만큼 sql을 study.querydsl.sql 로거로 남긴다. (show_sql 대신 운영에서 일부만 확인)
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final Logger SQL_LOG = LoggerFactory.getLogger("study.querydsl.sql");
+
+    private final double sampleRate;
+
+    public QueryCountInspector() {
+        this(0);
+    }
+
+    public QueryCountInspector(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate는 0 ~ 1 사이여야 합니다: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        QueryCountHolder.record(sql);
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate && SQL_LOG.isInfoEnabled()) {
+            SQL_LOG.info("[sampled] {}", sql);
+        }
+        return sql;
+    }
+}
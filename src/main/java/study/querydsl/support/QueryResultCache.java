@@ -0,0 +1,277 @@
+package study.querydsl.support;
+
+import com.querydsl.core.NonUniqueResultException;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JPAQuery 결과 캐시 (opt-in)
+ * 키: 직렬화된 JPQL + 바인딩 값 + offset/limit, LRU + TTL로 크기를 제한한다.
+ * 쿼리가 참조하는 엔티티 타입에 쓰기가 발생하면(invalidate) 해당 타입을 참조하는 결과를 모두 버린다.
+ * <p>
+ * DTO, 스칼라 프로젝션에만 사용한다. 캐시된 리스트는 여러 호출자가 공유하므로 수정할 수 없다.
+ */
+public class QueryResultCache {
+
+    private static final Object DIRTY_TRANSACTION_KEY = new Object();
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    private final LinkedHashMap<QueryKey, Entry> entries;
+    private long generation; //invalidate 될 때마다 증가, 조회 중에 무효화되면 결과를 캐시하지 않는다.
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public QueryResultCache(boolean enabled, int maxSize, Duration ttl) {
+        this(enabled, maxSize, ttl, Clock.systemUTC());
+    }
+
+    QueryResultCache(boolean enabled, int maxSize, Duration ttl, Clock clock) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<QueryKey, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<QueryKey, Entry> eldest) {
+                if (size() > QueryResultCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public <T> List<T> fetch(JPAQuery<T> query) {
+        if (!enabled || currentTransactionIsDirty()) {
+            return query.fetch();
+        }
+        requireDetached(query.getMetadata().getProjection());
+
+        QueryKey key = QueryKey.of(query);
+        long now = clock.millis();
+        long startGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.createdAt <= ttlMillis) {
+                hits.incrementAndGet();
+                @SuppressWarnings("unchecked")
+                List<T> cached = (List<T>) entry.result;
+                return cached;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+            startGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        List<T> result = Collections.unmodifiableList(new ArrayList<>(query.fetch()));
+
+        synchronized (this) {
+            if (startGeneration == generation) {
+                entries.put(key, new Entry(result, key.entityTypes, now));
+            }
+        }
+        return result;
+    }
+
+    public <T> T fetchOne(JPAQuery<T> query) {
+        List<T> result = fetch(query.clone().limit(2));
+        if (result.size() > 1) {
+            throw new NonUniqueResultException();
+        }
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /**
+     * entityType을 참조하는 캐시를 버린다.
+     * 트랜잭션 안이면 타입마다 처음 한 번만 바로 버리고, 커밋 직후에 이번 트랜잭션에서 바뀐 타입을 한 번에 다시 버린다.
+     * (커밋 전에 다른 트랜잭션이 이전 값을 다시 캐시할 수 있으므로)
+     * 그리고 쓰기가 있었던 트랜잭션에서는 커밋 전까지 캐시를 사용하지 않는다.
+     */
+    public void invalidate(Class<?> entityType) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(Collections.singleton(entityType));
+            return;
+        }
+        if (dirtyTypes().add(entityType)) { //saveAll 같은 반복 쓰기는 같은 타입이므로 여기서 걸러진다.
+            evict(Collections.singleton(entityType));
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    //트랜잭션마다 한 번 바인딩하고 커밋 후 한 번만 버린다.
+    @SuppressWarnings("unchecked")
+    private Set<Class<?>> dirtyTypes() {
+        Set<Class<?>> types = (Set<Class<?>>) TransactionSynchronizationManager.getResource(DIRTY_TRANSACTION_KEY);
+        if (types == null) {
+            Set<Class<?>> created = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(DIRTY_TRANSACTION_KEY, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DIRTY_TRANSACTION_KEY);
+                }
+            });
+            types = created;
+        }
+        return types;
+    }
+
+    private synchronized void evict(Collection<Class<?>> entityTypes) {
+        generation++;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().references(entityTypes)) {
+                iterator.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 캐시된 결과는 여러 세션이 공유하므로 영속 엔티티가 들어가면 안 된다. (DTO, 스칼라, 그 조합의 Tuple만)
+     */
+    private static void requireDetached(Expression<?> projection) {
+        if (projection instanceof EntityPath) {
+            throw new IllegalArgumentException("엔티티 조회 결과는 캐시할 수 없습니다: " + projection);
+        }
+        if (projection instanceof FactoryExpression) {
+            for (Expression<?> arg : ((FactoryExpression<?>) projection).getArgs()) {
+                requireDetached(arg);
+            }
+        }
+    }
+
+    private boolean currentTransactionIsDirty() {
+        return TransactionSynchronizationManager.hasResource(DIRTY_TRANSACTION_KEY);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private static class Entry {
+
+        private final List<?> result;
+        private final Set<Class<?>> entityTypes;
+        private final long createdAt;
+
+        Entry(List<?> result, Set<Class<?>> entityTypes, long createdAt) {
+            this.result = result;
+            this.entityTypes = entityTypes;
+            this.createdAt = createdAt;
+        }
+
+        boolean references(Collection<Class<?>> changedTypes) {
+            for (Class<?> type : entityTypes) {
+                for (Class<?> changed : changedTypes) {
+                    if (type.isAssignableFrom(changed) || changed.isAssignableFrom(type)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class QueryKey {
+
+        private final String jpql;
+        private final List<Object> bindings;
+        private final Long limit;
+        private final Long offset;
+        private final Set<Class<?>> entityTypes;
+
+        private QueryKey(String jpql, List<Object> bindings, QueryModifiers modifiers, Set<Class<?>> entityTypes) {
+            this.jpql = jpql;
+            this.bindings = bindings;
+            this.limit = modifiers.getLimit();
+            this.offset = modifiers.getOffset();
+            this.entityTypes = entityTypes;
+        }
+
+        static QueryKey of(JPAQuery<?> query) {
+            QueryMetadata metadata = query.getMetadata();
+            QueryBindingCollector collector = new QueryBindingCollector();
+            collector.collect(metadata);
+            return new QueryKey(query.toString(), collector.getBindings(), metadata.getModifiers(), collector.getEntityTypes());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof QueryKey)) {
+                return false;
+            }
+            QueryKey other = (QueryKey) o;
+            return jpql.equals(other.jpql)
+                    && bindings.equals(other.bindings)
+                    && Objects.equals(limit, other.limit)
+                    && Objects.equals(offset, other.offset);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(jpql, bindings, limit, offset);
+        }
+    }
+}
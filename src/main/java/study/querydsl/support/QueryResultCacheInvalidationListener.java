@@ -0,0 +1,42 @@
+package study.querydsl.support;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * flush 시점에 insert/update/delete 된 엔티티 타입의 결과 캐시를 버린다. (변경 감지로 수정된 경우 포함)
+ */
+public class QueryResultCacheInvalidationListener
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final QueryResultCache resultCache;
+
+    public QueryResultCacheInvalidationListener(QueryResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        resultCache.invalidate(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        resultCache.invalidate(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        resultCache.invalidate(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+}
@@ -0,0 +1,111 @@
+package study.querydsl.support;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 동적 쿼리의 조건 조합(템플릿 이름 + 키)별로 만들어 둔 쿼리 템플릿을 재사용한다.
+ * 조합마다 같은 JPQL 문자열이 나가므로 Hibernate 쿼리 플랜 캐시(hibernate.query.plan_cache_max_size)에 적중한다.
+ * 플랜 캐시 적중/실패 수는 Hibernate 통계(hibernate.generate_statistics, querydsl.statistics=true)에서 읽는다. 기본은 꺼져 있다.
+ * 조건 조합 수만큼만 늘어나므로 크기 제한은 두지 않는다.
+ */
+@Component
+public class QueryTemplateCache {
+
+    private final Map<TemplateKey, Object> templates = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Statistics statistics;
+
+    public QueryTemplateCache(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String name, Object key, Supplier<T> compiler) {
+        TemplateKey templateKey = new TemplateKey(name, key);
+        Object template = templates.get(templateKey);
+        if (template != null) {
+            hits.incrementAndGet();
+            return (T) template;
+        }
+        misses.incrementAndGet();
+        return (T) templates.computeIfAbsent(templateKey, k -> compiler.get());
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        return rate(hits.get(), misses.get());
+    }
+
+    /**
+     * Hibernate 쿼리 플랜 캐시 (통계가 꺼져 있으면 0)
+     */
+    public long getPlanCacheHits() {
+        return statistics.getQueryPlanCacheHitCount();
+    }
+
+    public long getPlanCacheMisses() {
+        return statistics.getQueryPlanCacheMissCount();
+    }
+
+    public double getPlanCacheHitRate() {
+        return rate(getPlanCacheHits(), getPlanCacheMisses());
+    }
+
+    public boolean isPlanStatisticsEnabled() {
+        return statistics.isStatisticsEnabled();
+    }
+
+    private static double rate(long hit, long miss) {
+        long total = hit + miss;
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    private static final class TemplateKey {
+
+        private final String name;
+        private final Object key;
+
+        TemplateKey(String name, Object key) {
+            this.name = name;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateKey)) {
+                return false;
+            }
+            TemplateKey other = (TemplateKey) o;
+            return name.equals(other.name) && Objects.equals(key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, key);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package study.querydsl.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))은 replica, 그 외는 primary 커넥션을 준다.
+ * replica 커넥션 획득에 실패하면 retryInterval 동안 primary로 보낸다.
+ * <p>
+ * 트랜잭션 시작 시점에는 readOnly 여부가 아직 설정되지 않으므로 LazyConnectionDataSourceProxy로 감싸서 사용한다.
+ * <p>
+ * 복제 지연 없이 읽어야 하는 조회(예: 변경 피드)는 {@link #onPrimary}로 감싸면 읽기 전용이어도 primary로 간다.
+ * 커넥션을 받는 시점에 결정되므로 이미 replica 커넥션을 쓰고 있는 트랜잭션 안에서는 효과가 없다.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long retryIntervalMillis;
+    private final Clock clock;
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private volatile long replicaDownUntil;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration retryInterval) {
+        this(primary, replica, retryInterval, Clock.systemUTC());
+    }
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration retryInterval, Clock clock) {
+        this.primary = primary;
+        this.replica = replica;
+        this.retryIntervalMillis = retryInterval.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (useReplica()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markReplicaDown(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (useReplica()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                markReplicaDown(e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * work 안에서 받는 커넥션은 읽기 전용 트랜잭션이어도 primary (replica가 없으면 그대로 실행)
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY.remove();
+            } else {
+                PRIMARY.set(previous);
+            }
+        }
+    }
+
+    public boolean isReplicaAvailable() {
+        return clock.millis() >= replicaDownUntil;
+    }
+
+    private boolean useReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PRIMARY.get() == null
+                && isReplicaAvailable();
+    }
+
+    private void markReplicaDown(SQLException e) {
+        replicaDownUntil = clock.millis() + retryIntervalMillis;
+        log.warn("replica 커넥션 획득 실패, {}ms 동안 primary로 조회합니다.", retryIntervalMillis, e);
+    }
+}
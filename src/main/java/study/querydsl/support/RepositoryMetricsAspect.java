@@ -0,0 +1,131 @@
+package study.querydsl.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.domain.Slice;
+import study.querydsl.repository.KeysetSlice;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 메서드(논리 쿼리) 단위로 시간, 반환 건수, 실행된 sql 수를 Micrometer로 기록한다.
+ * - querydsl.repository.query: timer (p50, p99)
+ * - querydsl.repository.rows: 반환 건수 (List, Page/Slice, KeysetSlice, Optional만)
+ * - querydsl.repository.statements: 실행된 sql 수
+ * tag: method=리포지토리.메서드
+ *
+ * slowQueryThreshold를 넘으면 인자(바인딩 값)와 실행된 sql을 경고 로그로 남긴다.
+ * sql 로그(show_sql, p6spy)를 끄고도 느린 쿼리를 찾기 위한 용도.
+ */
+@Slf4j
+@Aspect
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry registry;
+    private final Duration slowQueryThreshold;
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsAspect(MeterRegistry registry, Duration slowQueryThreshold) {
+        this.registry = registry;
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+
+    //Spring Data 리포지토리(커스텀 메서드 포함)와 @Repository 클래스, 비동기 메서드는 내부 호출에서 기록된다.
+    @Around("(target(org.springframework.data.repository.Repository)"
+            + " || @within(org.springframework.stereotype.Repository))"
+            + " && execution(public * *(..))"
+            + " && !execution(java.util.concurrent.CompletableFuture *(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = repositoryName(joinPoint.getTarget()) + "." + joinPoint.getSignature().getName();
+        Meters meter = meters.computeIfAbsent(method, this::register);
+
+        QueryCount count = QueryCountHolder.start();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            rows(result).ifPresent(meter.rows::record);
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            QueryCountHolder.stop(count);
+            meter.timer.record(elapsed, TimeUnit.NANOSECONDS);
+            meter.statements.record(count.getTotal());
+            if (elapsed > slowQueryThreshold.toNanos()) {
+                logSlowQuery(method, joinPoint.getArgs(), elapsed, count);
+            }
+        }
+    }
+
+    private Meters register(String method) {
+        Timer timer = Timer.builder("querydsl.repository.query")
+                .tag("method", method)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        DistributionSummary rows = DistributionSummary.builder("querydsl.repository.rows")
+                .tag("method", method)
+                .register(registry);
+        DistributionSummary statements = DistributionSummary.builder("querydsl.repository.statements")
+                .tag("method", method)
+                .register(registry);
+        return new Meters(timer, rows, statements);
+    }
+
+    private void logSlowQuery(String method, Object[] args, long elapsed, QueryCount count) {
+        StringBuilder sql = new StringBuilder();
+        for (Map.Entry<String, Integer> statement : count.getStatements().entrySet()) {
+            sql.append('\n').append(statement.getValue()).append("회: ").append(statement.getKey());
+        }
+        log.warn("느린 쿼리: {} {}ms, args={}, {}{}",
+                method, TimeUnit.NANOSECONDS.toMillis(elapsed), Arrays.toString(args), count, sql);
+    }
+
+    //Spring Data 리포지토리는 프록시이므로 인터페이스 이름을 쓴다.
+    private static String repositoryName(Object target) {
+        if (target instanceof org.springframework.data.repository.Repository) {
+            return AopProxyUtils.proxiedUserInterfaces(target)[0].getSimpleName();
+        }
+        return AopProxyUtils.ultimateTargetClass(target).getSimpleName();
+    }
+
+    private static Optional<Integer> rows(Object result) {
+        if (result instanceof Collection) {
+            return Optional.of(((Collection<?>) result).size());
+        }
+        if (result instanceof Slice) {
+            return Optional.of(((Slice<?>) result).getNumberOfElements());
+        }
+        if (result instanceof KeysetSlice) {
+            return Optional.of(((KeysetSlice<?>) result).getContent().size());
+        }
+        if (result instanceof Optional) {
+            return Optional.of(((Optional<?>) result).isPresent() ? 1 : 0);
+        }
+        return Optional.empty();
+    }
+
+    private static class Meters {
+
+        private final Timer timer;
+        private final DistributionSummary rows;
+        private final DistributionSummary statements;
+
+        Meters(Timer timer, DistributionSummary rows, DistributionSummary statements) {
+            this.timer = timer;
+            this.rows = rows;
+            this.statements = statements;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package study.querydsl.support;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.function.Consumer;
+
+/**
+ * Member insert/delete, age 변경, 팀 변경(changeTeam) 시 통계가 바뀌는 팀 id를 알려준다.
+ * 팀 변경은 이전 팀과 새 팀 모두 알려준다.
+ */
+public class TeamStatsChangeListener
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final Consumer<Long> dirtyTeam;
+
+    public TeamStatsChangeListener(Consumer<Long> dirtyTeam) {
+        this.dirtyTeam = dirtyTeam;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            mark(((Member) event.getEntity()).getTeam());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        int age = persister.getPropertyIndex("age");
+        int team = persister.getPropertyIndex("team");
+        int[] dirty = event.getDirtyProperties();
+        if (dirty != null && !contains(dirty, age) && !contains(dirty, team)) {
+            return; //username만 바뀐 경우
+        }
+        if (event.getOldState() != null) {
+            mark(event.getOldState()[team]);
+        }
+        mark(event.getState()[team]);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            mark(((Member) event.getEntity()).getTeam());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void mark(Object team) {
+        if (team instanceof Team && ((Team) team).getId() != null) {
+            dirtyTeam.accept(((Team) team).getId()); //프록시여도 id 조회는 초기화하지 않는다.
+        }
+    }
+
+    private static boolean contains(int[] properties, int index) {
+        for (int property : properties) {
+            if (property == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -15,6 +15,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberDto;
 import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.dto.UserDtoProjection;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
@@ -499,6 +501,18 @@ public class QuerydslBasicTest {
                 .fetch();
     }
 
+    @Test
+    public void findDtoByGeneratedProjection() { //@GenerateProjection: DTO가 querydsl에 의존하지 않고 생성자를 직접 호출
+        List<UserDto> result = queryFactory
+                .select(new UserDtoProjection(member.username, member.age))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).extracting("name").containsExactly("member1", "member2", "member3", "member4");
+        assertThat(result).extracting("age").containsExactly(10, 20, 30, 40);
+    }
+
     @Test
     public void dynamicQuery_BooleanBuilder() {
         //검색조건
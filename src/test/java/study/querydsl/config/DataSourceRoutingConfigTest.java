@@ -0,0 +1,85 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchCondition;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * replica를 별도 H2(메모리)로 두고 primary와 다른 행을 넣어서
+ * 리포지토리 호출이 JpaTransactionManager, LazyConnectionDataSourceProxy를 거쳐 어느 쪽으로 가는지 확인한다.
+ */
+@SpringBootTest(properties = {
+        "querydsl.datasource.replica.jdbc-url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1",
+        "querydsl.datasource.replica.username=sa"
+})
+class DataSourceRoutingConfigTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replicaDataSource;
+
+    JdbcTemplate primary;
+    JdbcTemplate replica;
+
+    @BeforeEach
+    public void before() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+
+        //스키마는 hibernate가 primary에만 만들므로 그대로 복사한다.
+        List<String> ddl = primary.queryForList("script nodata", String.class);
+        replica.execute("drop all objects");
+        ddl.forEach(replica::execute);
+
+        memberRepository.save(new Member("primary", 42));
+        replica.update("insert into member (member_id, username, age) values (?, ?, ?)", 1L, "replica", 42);
+    }
+
+    @AfterEach
+    public void after() {
+        primary.update("delete from member where username in ('primary', 'saved')");
+        replica.execute("drop all objects");
+    }
+
+    @Test
+    public void readOnlyRepositoryCallsReadReplica() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(42);
+        condition.setAgeLoe(42);
+
+        List<MemberDto> result = memberRepository.serch(condition); //@Transactional(readOnly = true)
+
+        assertThat(result).extracting("username").containsExactly("replica");
+        assertThat(memberRepository.count()).isEqualTo(1); //SimpleJpaRepository readOnly
+    }
+
+    @Test
+    public void writesGoToPrimary() {
+        memberRepository.save(new Member("saved", 43));
+
+        assertThat(primary.queryForObject("select count(*) from member where username = 'saved'", Long.class))
+                .isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from member where username = 'saved'", Long.class))
+                .isZero();
+    }
+}
@@ -0,0 +1,31 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 기본 프로파일(p6spy 켜짐)에서도 querydsl.jdbc.* 가 풀에 적용되는지 확인한다.
+ */
+@SpringBootTest
+class JdbcTuningConfigTest {
+
+    @Autowired
+    DataSource dataSource;
+
+    @Test
+    public void tunesHikariBehindP6spy() throws SQLException {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+
+        assertThat(dataSource).isNotInstanceOf(HikariDataSource.class); //p6spy로 감싸져 있다.
+        assertThat(hikari.getMaximumPoolSize()).isEqualTo(10);
+        assertThat(hikari.getMinimumIdle()).isEqualTo(10);
+        assertThat(hikari.getDataSourceProperties()).containsEntry("QUERY_CACHE_SIZE", "256");
+    }
+}
@@ -0,0 +1,148 @@
+package study.querydsl.entity;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.repository.BulkSyncMode;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchCondition;
+import study.querydsl.support.QueryCount;
+import study.querydsl.support.QueryCountHolder;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 트랜잭션(영속성 컨텍스트)이 바뀌어도 2차 캐시에서 조회되는지 확인한다.
+ * 트랜잭션마다 커밋하므로 테스트 후 데이터를 직접 지운다.
+ */
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    Long memberId;
+    Long teamId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team team = new Team("teamA");
+            em.persist(team);
+            Member member = new Member("member1", 10, team);
+            em.persist(member);
+            em.persist(new Member("member2", 20, team));
+            teamId = team.getId();
+            memberId = member.getId();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    public void findByIdAcrossTransactions() {
+        tx.executeWithoutResult(status -> memberJpaRepository.findById(memberId)); //캐시에 적재
+
+        QueryCount count = QueryCountHolder.start();
+        try {
+            for (int i = 0; i < 3; i++) {
+                tx.executeWithoutResult(status -> assertThat(memberJpaRepository.findById(memberId)).isPresent());
+            }
+        } finally {
+            QueryCountHolder.stop(count);
+        }
+
+        assertThat(count.getTotal()).isZero();
+    }
+
+    @Test
+    public void teamMembersCollectionAcrossTransactions() {
+        tx.executeWithoutResult(status -> em.find(Team.class, teamId).getMembers().size());
+
+        QueryCount count = QueryCountHolder.start();
+        try {
+            tx.executeWithoutResult(status -> {
+                Team team = em.find(Team.class, teamId);
+                assertThat(team.getMembers()).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+            });
+        } finally {
+            QueryCountHolder.stop(count);
+        }
+
+        assertThat(count.getTotal()).isZero();
+    }
+
+    @Test
+    public void findByUsernameAcrossTransactions() {
+        tx.executeWithoutResult(status -> {
+            memberJpaRepository.findByUsername("member1"); //쿼리 캐시, 2차 캐시에 적재
+            memberRepository.findByUsername("member1");
+        });
+
+        QueryCount count = QueryCountHolder.start();
+        try {
+            for (int i = 0; i < 3; i++) {
+                tx.executeWithoutResult(status -> {
+                    assertThat(memberJpaRepository.findByUsername("member1")).extracting("age").containsExactly(10);
+                    assertThat(memberRepository.findByUsername("member1")).extracting("age").containsExactly(10);
+                });
+            }
+        } finally {
+            QueryCountHolder.stop(count);
+        }
+
+        assertThat(count.getTotal()).isZero();
+    }
+
+    @Test
+    public void usernameLookupInvalidatedByRename() {
+        tx.executeWithoutResult(status -> memberRepository.findByUsername("member1"));
+
+        tx.executeWithoutResult(status -> em.find(Member.class, memberId).setUsername("renamed")); //변경 감지
+
+        assertThat(memberRepository.findByUsername("member1")).isEmpty();
+        assertThat(memberJpaRepository.findByUsername("renamed")).extracting("id").containsExactly(memberId);
+    }
+
+    @Test
+    public void usernameLookupInvalidatedByBulkRename() {
+        tx.executeWithoutResult(status -> memberJpaRepository.findByUsername("member2"));
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member2");
+
+        memberRepository.bulkRename(condition, "bulk", BulkSyncMode.CLEAR);
+
+        assertThat(memberJpaRepository.findByUsername("member2")).isEmpty();
+        assertThat(memberRepository.findByUsername("bulk")).extracting("username").containsExactly("bulk");
+    }
+}
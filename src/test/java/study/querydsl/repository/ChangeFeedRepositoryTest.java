@@ -0,0 +1,225 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.ChangeEvent;
+import study.querydsl.entity.ChangeEvent.EntityType;
+import study.querydsl.entity.ChangeEvent.Type;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.LocalChangeFeedConsumer;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 변경 피드는 커밋 직전에 기록되므로 트랜잭션을 커밋하면서 확인하고 테스트 후 지운다.
+ */
+@SpringBootTest(properties = "querydsl.change-feed.enabled=true")
+class ChangeFeedRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    ChangeFeedRepository changeFeedRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    Long teamAId;
+    Long teamBId;
+    Long member1Id;
+    long offset;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("member1", 10, teamA);
+            em.persist(member1);
+            em.persist(new Member("member2", 20, teamB));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+            member1Id = member1.getId();
+        });
+        offset = changeFeedRepository.stream(0, 100, event -> { });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from ChangeEvent").executeUpdate();
+            em.createQuery("delete from PendingChangeEvent").executeUpdate();
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void recordsInsertsInSameTransaction() {
+        List<ChangeEvent> events = changeFeedRepository.readAfter(0, 100);
+
+        assertThat(events).extracting("entityType", "changeType")
+                .containsOnly(tuple(EntityType.TEAM, Type.INSERT), tuple(EntityType.MEMBER, Type.INSERT));
+        assertThat(events).filteredOn(e -> e.getEntityType() == EntityType.MEMBER)
+                .extracting("teamId").containsExactlyInAnyOrder(teamAId, teamBId);
+        assertThat(events).extracting("id").isSorted();
+    }
+
+    @Test
+    public void recordsUpdateAndTeamChange() {
+        tx.executeWithoutResult(status -> em.find(Member.class, member1Id).setAge(11));
+        tx.executeWithoutResult(status -> em.find(Member.class, member1Id).changeTeam(em.find(Team.class, teamBId)));
+
+        List<ChangeEvent> events = changeFeedRepository.readAfter(offset, 100);
+
+        assertThat(events).extracting("entityId", "changeType", "teamId").containsExactly(
+                tuple(member1Id, Type.UPDATE, teamAId),
+                tuple(member1Id, Type.TEAM_CHANGE, teamBId));
+    }
+
+    @Test
+    public void teamChangeCalledTwiceBeforeFlush() {
+        //같은 팀으로 한 번 더 호출해도 앞의 팀 변경이 지워지지 않는다.
+        tx.executeWithoutResult(status -> {
+            Member member1 = em.find(Member.class, member1Id);
+            member1.changeTeam(em.find(Team.class, teamBId));
+            member1.changeTeam(em.find(Team.class, teamBId));
+        });
+
+        assertThat(changeFeedRepository.readAfter(offset, 100)).extracting("entityId", "changeType", "teamId")
+                .containsExactly(tuple(member1Id, Type.TEAM_CHANGE, teamBId));
+    }
+
+    @Test
+    public void rollbackLeavesNoChange() {
+        tx.executeWithoutResult(status -> {
+            em.find(Member.class, member1Id).setAge(11);
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(changeFeedRepository.readAfter(offset, 100)).isEmpty();
+    }
+
+    @Test
+    public void recordsBulkUpdate() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        memberRepository.bulkAddAge(condition, 1, BulkSyncMode.CLEAR);
+
+        assertThat(changeFeedRepository.readAfter(offset, 100)).extracting("entityId", "changeType")
+                .containsExactly(tuple(member1Id, Type.BULK_UPDATE));
+        assertThat(countPending()).isZero(); //커밋 직전에 change_event로 옮기고 지운다.
+    }
+
+    @Test
+    public void bulkRollbackLeavesNoChange() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        tx.executeWithoutResult(status -> {
+            memberRepository.bulkAddAge(condition, 1, BulkSyncMode.CLEAR);
+            status.setRollbackOnly();
+        });
+
+        assertThat(changeFeedRepository.readAfter(offset, 100)).isEmpty();
+        assertThat(countPending()).isZero();
+    }
+
+    @Test
+    public void rawBulkUpdateIsNotRecorded() {
+        //리포지토리의 bulk* 밖에서 실행한 벌크 JPQL은 피드에 남지 않는다. (ChangeFeedRepository 문서)
+        long updated = tx.execute(status -> queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .execute());
+
+        assertThat(updated).isGreaterThanOrEqualTo(2); //member1, member2
+        assertThat(changeFeedRepository.readAfter(offset, 100)).isEmpty();
+    }
+
+    @Test
+    public void recordsBulkDeleteWithInsertSelect() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(0);
+
+        memberRepository.bulkDelete(condition, BulkSyncMode.CLEAR);
+
+        assertThat(changeFeedRepository.readAfter(offset, 100)).extracting("entityType", "changeType", "teamId")
+                .containsExactlyInAnyOrder(
+                        tuple(EntityType.MEMBER, Type.BULK_DELETE, teamAId),
+                        tuple(EntityType.MEMBER, Type.BULK_DELETE, teamBId));
+    }
+
+    @Test
+    public void readsFromReadOnlyTransaction() {
+        tx.executeWithoutResult(status -> em.find(Member.class, member1Id).setAge(11));
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        List<ChangeEvent> events = readOnly.execute(status -> changeFeedRepository.readAfter(offset, 100));
+
+        assertThat(events).extracting("entityId", "changeType").containsExactly(tuple(member1Id, Type.UPDATE));
+    }
+
+    @Test
+    public void rejectsNonPositiveBatchSize() {
+        assertThatThrownBy(() -> changeFeedRepository.stream(offset, 0, event -> { }))
+                .hasMessageContaining("batchSize");
+        assertThatThrownBy(() -> changeFeedRepository.readAfter(offset, -1))
+                .hasMessageContaining("batchSize");
+        assertThatThrownBy(() -> new LocalChangeFeedConsumer(changeFeedRepository, 0, event -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void localConsumerReadsInBatches() {
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < 5; i++) {
+                em.persist(new Member("member" + (i + 10), i));
+            }
+        });
+        List<ChangeEvent> consumed = new ArrayList<>();
+        LocalChangeFeedConsumer consumer = new LocalChangeFeedConsumer(changeFeedRepository, 2, consumed::add, offset);
+
+        int polls = 0;
+        while (consumer.poll() > 0) {
+            polls++;
+        }
+
+        assertThat(polls).isEqualTo(3);
+        assertThat(consumed).hasSize(5).extracting("changeType").containsOnly(Type.INSERT);
+        assertThat(consumer.getOffset()).isEqualTo(consumed.get(4).getId());
+    }
+
+    private long countPending() {
+        return tx.execute(status -> em.createQuery("select count(p) from PendingChangeEvent p", Long.class)
+                .getSingleResult());
+    }
+}
@@ -0,0 +1,74 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 비동기 조회는 별도 트랜잭션에서 실행되므로 데이터를 커밋해두고 테스트 후 지운다.
+ */
+@SpringBootTest
+class MemberAsyncRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberAsyncRepository memberAsyncRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    Long memberId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            Member member1 = new Member("member1", 10, teamA);
+            em.persist(member1);
+            em.persist(new Member("member2", 20, teamA));
+            memberId = member1.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void independentQueriesInParallel() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        CompletableFuture<List<MemberDto>> search = memberAsyncRepository.searchAsync(condition);
+        CompletableFuture<Long> count = memberAsyncRepository.countAsync(condition);
+        CompletableFuture<Optional<Member>> findById = memberAsyncRepository.findByIdAsync(memberId);
+        CompletableFuture.allOf(search, count, findById).join();
+
+        assertThat(search.join()).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+        assertThat(count.join()).isEqualTo(2);
+        assertThat(findById.join()).map(Member::getUsername).contains("member1");
+    }
+}
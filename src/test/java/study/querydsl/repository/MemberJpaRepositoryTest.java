@@ -1,12 +1,21 @@
 package study.querydsl.repository;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.JdbcStatementRecorder;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 @Transactional
@@ -18,6 +27,21 @@ class MemberJpaRepositoryTest {
     @Autowired
     MemberJpaRepository memberJpaRepository;
 
+    @Autowired
+    TeamJpaRepository teamJpaRepository;
+
+    @Autowired
+    JdbcStatementRecorder recorder;
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        JdbcStatementRecorder jdbcStatementRecorder() {
+            return new JdbcStatementRecorder();
+        }
+    }
+
     @Test
     public void basicTest() {
 
@@ -26,4 +50,60 @@ class MemberJpaRepositoryTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void saveAllBatch() {
+        Team team = new Team("teamA");
+        teamJpaRepository.save(team);
+        em.flush();
+
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            members.add(new Member("member" + i, i, team));
+        }
+
+        recorder.reset();
+        memberJpaRepository.saveAll(members, 100);
+
+        //insert 200건이 executeBatch 2번으로 나가고, 한 건씩 나가는 insert는 없다.
+        assertThat(recorder.getBatchedStatements()).isEqualTo(200);
+        assertThat(recorder.getBatches()).isEqualTo(2);
+        assertThat(recorder.getUpdates()).isZero();
+        //pooled-lo: 시퀀스는 50건마다 한 번만 호출
+        assertThat(recorder.getQueries()).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    public void readOnlyQuerySkipsDirtyChecking() {
+        memberJpaRepository.save(new Member("member1", 10));
+        memberJpaRepository.save(new Member("member2", 20));
+        em.flush();
+        em.clear();
+
+        List<Member> members = memberJpaRepository.findAllReadOnly();
+        Session session = em.unwrap(Session.class);
+        assertThat(members).allMatch(session::isReadOnly); //스냅샷 없음
+        members.forEach(m -> m.setAge(99));
+
+        recorder.reset();
+        em.flush();
+        assertThat(recorder.getBatches() + recorder.getUpdates()).isZero(); //변경 감지 대상이 아니라 update가 없다.
+
+        em.clear();
+        assertThat(memberJpaRepository.findById(members.get(0).getId()).get().getAge()).isNotEqualTo(99);
+    }
+
+    @Test
+    public void findByIdReadOnly() {
+        Member member = new Member("member1", 10);
+        memberJpaRepository.save(member);
+        em.flush();
+        em.clear();
+
+        Member readOnly = memberJpaRepository.findByIdReadOnly(member.getId()).get();
+
+        Session session = em.unwrap(Session.class);
+        assertThat(session.isReadOnly(readOnly)).isTrue();
+        assertThat(session.isDefaultReadOnly()).isFalse(); //원래 설정으로 복구
+    }
+
+}
@@ -0,0 +1,115 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.JdbcStatementRecorder;
+import study.querydsl.support.QueryPlanAssert;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 자주 쓰는 검색 조건이 member 전체 스캔으로 떨어지지 않는지 실행 계획으로 확인
+ */
+@SpringBootTest
+@Transactional
+class MemberQueryPlanTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    JdbcStatementRecorder recorder;
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        JdbcStatementRecorder jdbcStatementRecorder() {
+            return new JdbcStatementRecorder();
+        }
+    }
+
+    @BeforeEach
+    public void before() {
+        for (int i = 0; i < 10; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            for (int j = 0; j < 20; j++) {
+                em.persist(new Member("member" + i + "_" + j, j * 5, team));
+            }
+        }
+        em.flush();
+        em.clear();
+        recorder.reset();
+    }
+
+    @Test
+    public void usernameUsesIndex() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1_1");
+
+        memberRepository.serch(condition);
+
+        assertNoMemberScan();
+    }
+
+    @Test
+    public void ageRangeUsesIndex() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(35);
+
+        memberRepository.serch(condition);
+
+        assertNoMemberScan();
+    }
+
+    @Test
+    public void teamNameUsesIndex() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team3");
+
+        memberRepository.serch(condition);
+
+        assertNoMemberScan("TEAM");
+    }
+
+    @Test
+    public void sortUsesCompositeIndex() {
+        List<Member> result = queryFactory
+                .selectFrom(member)
+                .where(member.age.eq(50))
+                .orderBy(member.age.desc(), member.username.asc().nullsLast())
+                .fetch();
+
+        assertThat(result).isNotEmpty();
+        assertNoMemberScan();
+    }
+
+    private void assertNoMemberScan(String... otherTables) {
+        List<String> selects = recorder.getExecutedSql();
+        assertThat(selects).isNotEmpty();
+        for (String sql : selects) {
+            QueryPlanAssert.assertNoTableScan(em, sql, "MEMBER");
+            QueryPlanAssert.assertNoTableScan(em, sql, otherTables);
+        }
+    }
+}
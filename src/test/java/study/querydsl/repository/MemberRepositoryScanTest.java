@@ -0,0 +1,163 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.BoundedQueryExecutor;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 파티션은 별도 트랜잭션에서 조회되므로 데이터를 커밋해두고 테스트 후 지운다.
+ */
+@SpringBootTest
+class MemberRepositoryScanTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberAsyncRepository memberAsyncRepository;
+
+    @Autowired
+    @Qualifier("memberScanExecutor")
+    BoundedQueryExecutor scanExecutor;
+
+    @Value("${querydsl.jdbc.pool-size}")
+    int poolSize;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    List<Long> teamIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < 5; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teamIds.add(team.getId());
+                for (int j = 0; j < 20; j++) {
+                    em.persist(new Member("member" + (i * 20 + j), j, team));
+                }
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void scanByIdRangeOrdered() {
+        List<MemberDto> result = new ArrayList<>();
+
+        long count = memberRepository.scanByIdRange(new MemberSearchCondition(), 7, 3, ScanOrder.ORDERED, result::add);
+
+        assertThat(count).isEqualTo(100);
+        assertThat(result).extracting("username")
+                .containsExactlyElementsOf(IntStream.range(0, 100).mapToObj(i -> "member" + i).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void scanByIdRangeUnorderedWithCondition() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team2");
+        condition.setAgeLoe(9);
+        List<MemberDto> result = new ArrayList<>();
+
+        long count = memberRepository.scanByIdRange(condition, 4, 4, ScanOrder.UNORDERED, result::add);
+
+        assertThat(count).isEqualTo(10);
+        assertThat(result).extracting("username")
+                .containsExactlyInAnyOrderElementsOf(IntStream.range(40, 50).mapToObj(i -> "member" + i).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void scanByTeam() {
+        List<MemberDto> result = new ArrayList<>();
+
+        long count = memberRepository.scanByTeam(new MemberSearchCondition(), teamIds.subList(0, 3), 2, 2,
+                ScanOrder.ORDERED, result::add);
+
+        assertThat(count).isEqualTo(60);
+        assertThat(result.get(0).getUsername()).isEqualTo("member0");
+        assertThat(result.get(59).getUsername()).isEqualTo("member59");
+    }
+
+    @Test
+    public void sinkFailureStopsScan() { //남은 파티션은 큐를 기다리지 않고 끝난다.
+        assertThatThrownBy(() -> memberRepository.scanByIdRange(new MemberSearchCondition(), 10, 2, ScanOrder.ORDERED,
+                dto -> {
+                    throw new IllegalStateException("sink");
+                }))
+                .hasMessage("sink");
+
+        List<MemberDto> result = new ArrayList<>();
+        assertThat(memberRepository.scanByIdRange(new MemberSearchCondition(), 10, 2, ScanOrder.UNORDERED, result::add))
+                .isEqualTo(100);
+    }
+
+    @Test
+    public void slowScanDoesNotStarveAsyncSearch() throws Exception {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        //sink가 멈춰 있는 동안 파티션들은 큐가 차서 커넥션을 잡은 채 기다린다.
+        CompletableFuture<Long> scan = CompletableFuture.supplyAsync(() -> memberRepository.scanByIdRange(
+                new MemberSearchCondition(), 20, 20, ScanOrder.UNORDERED, dto -> {
+                    scanning.countDown();
+                    await(release);
+                }));
+        try {
+            assertThat(scanning.await(5, SECONDS)).isTrue();
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setTeamName("team1");
+
+            List<MemberDto> result = memberAsyncRepository.searchAsync(condition).get(5, SECONDS);
+
+            assertThat(result).hasSize(20);
+        } finally {
+            release.countDown();
+        }
+        assertThat(scan.get(10, SECONDS)).isEqualTo(100);
+        assertThat(scanExecutor.getMaxConcurrency()).isLessThan(poolSize);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package study.querydsl.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.QueryCount;
+import study.querydsl.support.QueryCountHolder;
+import study.querydsl.support.QueryTemplateCache;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "querydsl.statistics=true") //쿼리 플랜 캐시, 쿼리별 실행 수 확인
+@Transactional
+class MemberRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    QueryTemplateCache templateCache;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+    }
+
+    @Test
+    public void searchTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(35);
+        condition.setAgeLoe(40);
+        condition.setTeamName("teamB");
+
+        List<MemberDto> result = memberRepository.serch(condition);
+
+        assertThat(result).extracting("username").containsExactly("member4");
+    }
+
+    @Test
+    public void searchWithoutTeamCondition() { //팀 조건이 없으면 조인 없이 조회
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeLoe(20);
+
+        List<MemberDto> result = memberRepository.serch(condition);
+
+        assertThat(result).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+    }
+
+    @Test
+    public void searchByTemplate() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(35);
+        condition.setAgeLoe(40);
+        condition.setTeamName("teamB");
+        em.flush();
+        long hits = templateCache.getHits();
+        long misses = templateCache.getMisses();
+        long planHits = templateCache.getPlanCacheHits();
+        long planMisses = templateCache.getPlanCacheMisses();
+
+        List<MemberDto> first = memberRepository.searchByTemplate(condition); //템플릿 생성
+        condition.setAgeGoe(30); //같은 조건 조합 -> 템플릿 재사용
+        List<MemberDto> second = memberRepository.searchByTemplate(condition);
+        List<MemberDto> all = memberRepository.searchByTemplate(new MemberSearchCondition()); //조건 없음 -> 새 템플릿
+        memberRepository.searchByTemplate(new MemberSearchCondition());
+
+        assertThat(first).extracting("username").containsExactly("member4");
+        assertThat(second).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+        assertThat(all).hasSize(4);
+        assertThat(templateCache.getHits() - hits).isEqualTo(2);
+        assertThat(templateCache.getMisses() - misses).isEqualTo(2);
+
+        //JPQL 문자열은 두 가지 -> 플랜은 많아야 두 번 만들고 나머지는 Hibernate 플랜 캐시 적중
+        assertThat(templateCache.isPlanStatisticsEnabled()).isTrue();
+        assertThat(templateCache.getPlanCacheMisses() - planMisses).isLessThanOrEqualTo(2);
+        assertThat(templateCache.getPlanCacheHits() - planHits).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    public void searchByTemplateBuildsJpqlOncePerMask() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+        condition.setAgeLoe(20);
+        int mask = MemberSearchTemplate.mask(condition);
+        em.flush();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        memberRepository.searchByTemplate(condition); //JPQL 생성
+        MemberSearchTemplate.Compiled compiled = templateCache.get(MemberSearchTemplate.NAME, mask, () -> {
+            throw new AssertionError("첫 호출에서 만들어져 있어야 한다.");
+        });
+        long executions = statistics.getQueryStatistics(compiled.getJpql()).getExecutionCount();
+
+        condition.setUsername("member2");
+        List<MemberDto> result = memberRepository.searchByTemplate(condition);
+        memberRepository.searchByTemplate(condition);
+
+        assertThat(result).extracting("username").containsExactly("member2");
+        //다시 만들지 않고 같은 JPQL 문자열을 그대로 실행한다.
+        assertThat(templateCache.get(MemberSearchTemplate.NAME, mask, () -> {
+            throw new AssertionError("다시 만들면 안 된다.");
+        })).isSameAs(compiled);
+        assertThat(compiled.getJpql()).doesNotContain("new ").contains("?1", "?2").doesNotContain("?3");
+        assertThat(statistics.getQueryStatistics(compiled.getJpql()).getExecutionCount() - executions)
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void searchByTemplateMatchesSearch() { //같은 조건 정의를 쓰므로 결과가 같다.
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(15);
+
+        assertThat(memberRepository.searchByTemplate(condition))
+                .containsExactlyInAnyOrderElementsOf(memberRepository.serch(condition));
+    }
+
+    @Test
+    public void searchByKeyset() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        KeysetSlice<MemberDto> page1 = memberRepository.searchByKeyset(condition, null, 3);
+        KeysetSlice<MemberDto> page2 = memberRepository.searchByKeyset(condition, page1.getNextToken(), 3);
+
+        assertThat(page1.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(page1.hasNext()).isTrue();
+        assertThat(page2.getContent()).extracting("username").containsExactly("member4");
+        assertThat(page2.hasNext()).isFalse();
+    }
+
+    @Test
+    public void searchByKeysetWithSameAge() { //정렬 키가 같으면 member_id로 이어서 조회
+        em.persist(new Member("member5", 40));
+        em.persist(new Member("member6", 40));
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(40);
+
+        KeysetSlice<MemberDto> page1 = memberRepository.searchByKeyset(condition, null, 2);
+        KeysetSlice<MemberDto> page2 = memberRepository.searchByKeyset(condition, page1.getNextToken(), 2);
+
+        assertThat(page1.getContent()).extracting("username").containsExactly("member4", "member5");
+        assertThat(page2.getContent()).extracting("username").containsExactly("member6");
+    }
+
+    @Test
+    public void searchPage() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Page<MemberDto> page = memberRepository.searchPage(condition, PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age")));
+
+        assertThat(page.getContent()).extracting("username").containsExactly("member4", "member3", "member2");
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+    }
+
+    @Test
+    public void searchPageWithoutCount() { //첫 페이지가 size보다 작으면 count 쿼리 없이 전체 개수를 계산
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        em.flush();
+
+        QueryCount count = QueryCountHolder.start();
+        Page<MemberDto> page;
+        try {
+            page = memberRepository.searchPage(condition, PageRequest.of(0, 10));
+        } finally {
+            QueryCountHolder.stop(count);
+        }
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(count.getSelect()).isEqualTo(1); //content 쿼리만
+        assertThat(count.getStatements().keySet()).noneMatch(sql -> sql.toLowerCase().contains("count("));
+    }
+
+    @Test
+    public void searchPageRejectsUnknownSort() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        assertThatThrownBy(() -> memberRepository.searchPage(condition, PageRequest.of(0, 3, Sort.by("team.name"))))
+                .hasMessageContaining("team.name"); //리포지토리 프록시가 예외를 변환할 수 있어 메시지로 확인
+    }
+
+    @Test
+    public void searchSlice() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Slice<MemberDto> slice = memberRepository.searchSlice(condition, PageRequest.of(1, 3));
+
+        assertThat(slice.getContent()).extracting("username").containsExactly("member4");
+        assertThat(slice.hasNext()).isFalse();
+        assertThat(memberRepository.count(condition)).isEqualTo(4);
+    }
+
+    @Test
+    public void export() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        List<MemberDto> exported = new ArrayList<>();
+
+        long count = memberRepository.export(condition, 100, exported::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(exported).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+    }
+
+    @Test
+    public void exportKeepsCallerEntitiesManaged() {
+        Member member1 = memberRepository.findByUsername("member1").get(0);
+        member1.setAge(99); //아직 flush 전
+
+        memberRepository.export(new MemberSearchCondition(), 1, dto -> { });
+
+        assertThat(em.contains(member1)).isTrue();
+        em.flush();
+        em.clear();
+        assertThat(memberRepository.findById(member1.getId()).get().getAge()).isEqualTo(99);
+    }
+
+    @Test
+    public void bulkAddAgeEvictsAffectedMembers() {
+        em.flush();
+        Member member1 = memberRepository.findByUsername("member1").get(0);
+        Member member3 = memberRepository.findByUsername("member3").get(0);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        long count = memberRepository.bulkAddAge(condition, 1, BulkSyncMode.EVICT_AFFECTED);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(em.contains(member1)).isFalse(); //대상은 준영속 -> 다시 조회하면 DB 값
+        assertThat(memberRepository.findById(member1.getId()).get().getAge()).isEqualTo(11);
+        assertThat(em.contains(member3)).isTrue(); //대상이 아닌 회원은 그대로
+    }
+
+    @Test
+    public void bulkRenameClearsPersistenceContext() {
+        Member member1 = memberRepository.findByUsername("member1").get(0);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeLoe(28);
+
+        long count = memberRepository.bulkRename(condition, "비회원", BulkSyncMode.CLEAR);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(memberRepository.findById(member1.getId()).get().getUsername()).isEqualTo("비회원");
+    }
+
+    @Test
+    public void bulkAddAgeInChunks() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        long count = memberRepository.bulkAddAge(condition, 1, BulkSyncMode.CLEAR, 1);
+
+        assertThat(count).isEqualTo(4);
+        assertThat(memberRepository.serch(condition)).extracting("age").containsExactlyInAnyOrder(11, 21, 31, 41);
+    }
+}
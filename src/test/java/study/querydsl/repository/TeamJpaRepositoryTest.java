@@ -0,0 +1,101 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.QueryCount;
+import study.querydsl.support.QueryCountHolder;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamJpaRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamJpaRepository teamJpaRepository;
+
+    @Value("${querydsl.batch-fetch-size:100}")
+    int batchFetchSize;
+
+    @BeforeEach
+    public void before() {
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            em.persist(new Member("member" + i + "_1", 10, team));
+            em.persist(new Member("member" + i + "_2", 20, team));
+        }
+        em.persist(new Team("emptyTeam"));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void findTeamsWithMembers() {
+        QueryCount count = QueryCountHolder.start();
+        List<TeamMembersDto> result;
+        try {
+            result = teamJpaRepository.findTeamsWithMembers(PageRequest.of(0, 10));
+        } finally {
+            QueryCountHolder.stop(count);
+        }
+
+        assertThat(count.getSelect()).isEqualTo(2);
+        assertThat(result).extracting("name").containsExactly("team0", "team1", "team2", "emptyTeam");
+        assertThat(result.get(0).getMembers()).extracting("username").containsExactly("member0_1", "member0_2");
+        assertThat(result.get(3).getMembers()).isEmpty();
+    }
+
+    @Test
+    public void batchFetchTeamMembers() { //default_batch_fetch_size -> 컬렉션 초기화가 팀마다가 아니라 in절로 묶인다.
+        QueryCount count = QueryCountHolder.start();
+        List<Team> teams;
+        try {
+            teams = em.createQuery("select t from Team t", Team.class).getResultList();
+            for (Team team : teams) {
+                team.getMembers().size();
+            }
+        } finally {
+            QueryCountHolder.stop(count);
+        }
+
+        assertThat(count.getSelect()).isEqualTo(1 + batches(teams.size()));
+    }
+
+    @Test
+    public void batchFetchMemberTeams() { //1 + N -> 1 + ceil(N / batch size), N: 지연 로딩할 팀 수
+        QueryCount count = QueryCountHolder.start();
+        List<Member> members;
+        try {
+            members = em.createQuery("select m from Member m", Member.class).getResultList();
+            for (Member member : members) {
+                member.getTeam().getName();
+            }
+        } finally {
+            QueryCountHolder.stop(count);
+        }
+
+        assertThat(members).hasSize(6);
+        assertThat(count.getSelect()).isEqualTo(1 + batches(3));
+        assertThat(count.getRepeatedSelects(2)).isEmpty();
+    }
+
+    //배치 크기 이하의 프록시는 in절 한 번에 초기화된다.
+    private int batches(int owners) {
+        return (owners + batchFetchSize - 1) / batchFetchSize;
+    }
+}
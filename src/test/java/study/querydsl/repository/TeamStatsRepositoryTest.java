@@ -0,0 +1,123 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 요약 테이블은 커밋 직전에 갱신되므로 트랜잭션을 커밋하면서 확인하고 테스트 후 지운다.
+ */
+@SpringBootTest(properties = "querydsl.team-stats.summary=true")
+class TeamStatsRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    Long teamAId;
+    Long teamBId;
+    Long member1Id;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("member1", 10, teamA);
+            em.persist(member1);
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+            em.persist(new Member("member4", 40, teamB));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+            member1Id = member1.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from TeamStats").executeUpdate();
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void summaryMaintainedOnPersist() {
+        List<TeamStatsDto> stats = teamStatsRepository.findAll();
+
+        assertThat(stats).extracting("teamName").containsExactly("teamA", "teamB");
+        TeamStatsDto teamA = stats.get(0);
+        assertThat(teamA.getCount()).isEqualTo(2);
+        assertThat(teamA.getSum()).isEqualTo(30);
+        assertThat(teamA.getAvg()).isEqualTo(15);
+        assertThat(teamA.getMax()).isEqualTo(20);
+        assertThat(teamA.getMin()).isEqualTo(10);
+    }
+
+    @Test
+    public void summaryMaintainedOnAgeAndTeamChange() {
+        tx.executeWithoutResult(status -> {
+            Member member1 = em.find(Member.class, member1Id);
+            member1.setAge(50);
+            member1.changeTeam(em.find(Team.class, teamBId)); //변경 감지 -> teamA, teamB 모두 갱신
+        });
+
+        TeamStatsDto teamA = teamStatsRepository.findByTeamId(teamAId).get();
+        TeamStatsDto teamB = teamStatsRepository.findByTeamId(teamBId).get();
+        assertThat(teamA.getCount()).isEqualTo(1);
+        assertThat(teamA.getMin()).isEqualTo(20);
+        assertThat(teamB.getCount()).isEqualTo(3);
+        assertThat(teamB.getMax()).isEqualTo(50);
+    }
+
+    @Test
+    public void summaryMaintainedOnBulk() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        memberRepository.bulkAddAge(condition, 1, BulkSyncMode.CLEAR);
+
+        assertThat(teamStatsRepository.findByTeamId(teamBId).get().getSum()).isEqualTo(72);
+
+        memberRepository.bulkDelete(condition, BulkSyncMode.CLEAR);
+
+        assertThat(teamStatsRepository.findByTeamId(teamBId)).isEmpty();
+        assertThat(teamStatsRepository.findAll()).extracting("teamName").containsExactly("teamA");
+    }
+
+    @Test
+    public void rebuildSummary() {
+        tx.executeWithoutResult(status -> em.createQuery("delete from TeamStats").executeUpdate());
+        assertThat(teamStatsRepository.findAll()).isEmpty();
+
+        teamStatsRepository.rebuildSummary();
+
+        assertThat(teamStatsRepository.findAll()).extracting("count").containsExactly(2L, 2L);
+    }
+}
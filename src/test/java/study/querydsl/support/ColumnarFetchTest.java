@@ -0,0 +1,129 @@
+package study.querydsl.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.TeamStatsRepository;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class ColumnarFetchTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
+    Team teamA;
+    Team teamB;
+
+    @BeforeEach
+    public void before() {
+        teamA = new Team("teamA");
+        teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 1500; i++) { //초기 버퍼(1024)보다 많이
+            em.persist(new Member("member" + i, i % 100, i % 3 == 0 ? teamB : teamA));
+        }
+        em.persist(new Member("noTeam", 7));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void fetchInts() {
+        int[] ages = ColumnarFetch.fetchInts(queryFactory.select(member.age).from(member).where(member.age.lt(100)));
+
+        assertThat(ages).hasSize(1501);
+        assertThat(Arrays.stream(ages).sum()).isEqualTo(15 * 4950 + 7);
+    }
+
+    @Test
+    public void fetchLongs() {
+        long[] ids = ColumnarFetch.fetchLongs(queryFactory.select(member.id).from(member).orderBy(member.id.asc()));
+
+        assertThat(ids).hasSize(1501).isSorted();
+    }
+
+    @Test
+    public void findTeamAges() {
+        NumericColumns columns = teamStatsRepository.findTeamAges();
+
+        assertThat(columns.size()).isEqualTo(1500);
+        assertThat(columns.columnCount()).isEqualTo(2);
+        assertThat(columns.column(0)).isSorted().containsOnly(teamA.getId(), teamB.getId());
+        assertThat(teamStatsRepository.findAges(teamB.getId())).hasSize(500);
+    }
+
+    @Test
+    public void aggregateColumnsKeepTheirType() { //count -> long[], avg -> double[] (잘라내지 않는다)
+        NumericColumns columns = ColumnarFetch.fetchColumns(queryFactory
+                .select(member.team.id, member.count(), member.age.avg())
+                .from(member)
+                .where(member.team.isNotNull())
+                .groupBy(member.team.id)
+                .orderBy(member.team.id.asc()));
+
+        assertThat(columns.isFloating(1)).isFalse();
+        assertThat(columns.isFloating(2)).isTrue();
+        assertThat(columns.column(1)).containsExactly(1000, 500);
+        assertThat(columns.getDouble(2, 0)).isEqualTo(49.5);
+        assertThatThrownBy(() -> columns.column(2)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void integralFetchRejectsFloatingProjection() {
+        assertThatThrownBy(() -> ColumnarFetch.fetchInts(queryFactory.select(member.age.avg()).from(member)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        double[] avg = ColumnarFetch.fetchDoubles(queryFactory.select(member.age.avg()).from(member));
+        int[] sum = ColumnarFetch.fetchInts(queryFactory.select(member.age.sum()).from(member)); //실제 값은 Long
+
+        assertThat(avg).hasSize(1);
+        assertThat(sum).containsExactly(15 * 4950 + 7);
+    }
+
+    @Test
+    public void bindsEntityAndValueParameters() { //엔티티 파라미터는 id로 바인딩
+        int[] ages = ColumnarFetch.fetchInts(queryFactory
+                .select(member.age)
+                .from(member)
+                .where(member.team.eq(em.getReference(Team.class, teamA.getId())),
+                        member.username.startsWith("member"),
+                        member.age.goe(50)));
+
+        assertThat(ages).hasSize(500).allMatch(age -> age >= 50);
+    }
+
+    @Test
+    public void flushesPendingChangesBeforeReading() { //JDBC로 읽으므로 직접 flush
+        em.persist(new Member("late", 1000));
+
+        int[] ages = ColumnarFetch.fetchInts(queryFactory.select(member.age).from(member).where(member.age.eq(1000)));
+
+        assertThat(ages).containsExactly(1000);
+    }
+
+    @Test
+    public void rejectsLimit() {
+        assertThatThrownBy(() -> ColumnarFetch.fetchInts(queryFactory.select(member.age).from(member).limit(10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
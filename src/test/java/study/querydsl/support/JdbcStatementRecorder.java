@@ -0,0 +1,75 @@
+package study.querydsl.support;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * p6spy로 실제 JDBC 호출 횟수를 센다. (설정이 아니라 실제로 배치가 나갔는지 검증하는 용도)
+ * 빈으로 등록하면 p6spy-spring-boot-starter가 리스너로 붙여준다.
+ */
+public class JdbcStatementRecorder extends JdbcEventListener {
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private final AtomicInteger updates = new AtomicInteger();
+    private final AtomicInteger batchedStatements = new AtomicInteger();
+    private final AtomicInteger batches = new AtomicInteger();
+    private final List<String> executedSql = new CopyOnWriteArrayList<>();
+
+    public void reset() {
+        queries.set(0);
+        updates.set(0);
+        batchedStatements.set(0);
+        batches.set(0);
+        executedSql.clear();
+    }
+
+    @Override
+    public void onAfterExecuteQuery(PreparedStatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        queries.incrementAndGet();
+        executedSql.add(statementInformation.getSqlWithValues());
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(PreparedStatementInformation statementInformation, long timeElapsedNanos, int rowCount, SQLException e) {
+        updates.incrementAndGet();
+        executedSql.add(statementInformation.getSqlWithValues());
+    }
+
+    @Override
+    public void onAfterAddBatch(PreparedStatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        batchedStatements.incrementAndGet();
+    }
+
+    @Override
+    public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos, int[] updateCounts, SQLException e) {
+        batches.incrementAndGet();
+        executedSql.add(statementInformation.getSql());
+    }
+
+    public int getQueries() {
+        return queries.get();
+    }
+
+    public int getUpdates() {
+        return updates.get();
+    }
+
+    public int getBatchedStatements() {
+        return batchedStatements.get();
+    }
+
+    public int getBatches() {
+        return batches.get();
+    }
+
+    //바인딩 값이 채워진 sql (배치는 원본 sql)
+    public List<String> getExecutedSql() {
+        return executedSql;
+    }
+}
@@ -0,0 +1,74 @@
+package study.querydsl.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * N+1을 그대로 보기 위해 배치 페치(default_batch_fetch_size)를 끈다. 배치 페치 결과는 TeamJpaRepositoryTest
+ */
+@SpringBootTest(properties = "querydsl.batch-fetch-size=0")
+@Transactional
+class QueryCountTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        for (int i = 0; i < 3; i++) {
+            Team t = new Team("team" + i);
+            em.persist(t);
+            em.persist(new Member("member" + i, 10 * i, t));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void detectNPlusOne() {
+        QueryCount count = QueryCountHolder.start();
+        try {
+            List<Member> members = queryFactory.selectFrom(member).fetch();
+            for (Member m : members) {
+                m.getTeam().getName(); //Lazy 로딩 -> 팀마다 select
+            }
+        } finally {
+            QueryCountHolder.stop(count);
+        }
+
+        assertThat(count.getSelect()).isEqualTo(4);
+        assertThat(count.getRepeatedSelects(3)).hasSize(1);
+    }
+
+    @Test
+    public void fetchJoinIssuesSingleSelect() {
+        QueryCount count = QueryCountHolder.start();
+        try {
+            List<Member> members = queryFactory.selectFrom(member).join(member.team, team).fetchJoin().fetch();
+            for (Member m : members) {
+                m.getTeam().getName();
+            }
+        } finally {
+            QueryCountHolder.stop(count);
+        }
+
+        assertThat(count.getSelect()).isEqualTo(1);
+        assertThat(count.getRepeatedSelects(2)).isEmpty();
+    }
+}
@@ -0,0 +1,48 @@
+package study.querydsl.support;
+
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * H2 EXPLAIN으로 실행 계획을 확인한다.
+ * H2는 인덱스 없이 읽는 테이블을 계획에 PUBLIC.MEMBER.tableScan 처럼 표시한다.
+ * sql은 바인딩 값이 채워진 것(JdbcStatementRecorder.getExecutedSql())을 넘긴다.
+ */
+public final class QueryPlanAssert {
+
+    private QueryPlanAssert() {
+    }
+
+    //같은 커넥션(트랜잭션)에서 실행해야 flush만 된 데이터도 통계에 잡힌다.
+    public static String explain(EntityManager em, String sql) {
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("explain " + sql)) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    /**
+     * tables 중 하나라도 전체 스캔하면 실패
+     */
+    public static void assertNoTableScan(EntityManager em, String sql, String... tables) {
+        String plan = explain(em, sql);
+        String upperPlan = plan.toUpperCase(Locale.ROOT);
+        for (String table : tables) {
+            assertThat(upperPlan)
+                    .as("%s 테이블 전체 스캔\nsql: %s\nplan: %s", table, sql, plan)
+                    .doesNotContain(table.toUpperCase(Locale.ROOT) + ".TABLESCAN");
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package study.querydsl.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+class QueryResultCacheTest {
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    QueryResultCache cache = new QueryResultCache(true, 10, Duration.ofMinutes(1));
+
+    @Test
+    public void hitOnSameQueryAndBindings() {
+        List<String> first = cache.fetch(queryFactory.select(member.username).from(member).where(member.age.eq(10)));
+        List<String> second = cache.fetch(queryFactory.select(member.username).from(member).where(member.age.eq(10)));
+        cache.fetch(queryFactory.select(member.username).from(member).where(member.age.eq(20))); //바인딩 값이 다르면 다른 키
+
+        assertThat(second).isSameAs(first);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    public void invalidateByEntityType() {
+        cache.fetch(queryFactory.select(member.username).from(member));
+        cache.fetch(queryFactory.select(team.name).from(team));
+        cache.fetch(queryFactory.select(team.name).from(member).join(member.team, team)); //조인한 타입도 추적
+
+        cache.invalidate(team.getType());
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.getEvictions()).isEqualTo(2);
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        QueryResultCache small = new QueryResultCache(true, 1, Duration.ofMinutes(1));
+
+        small.fetch(queryFactory.select(member.username).from(member));
+        small.fetch(queryFactory.select(team.name).from(team));
+
+        assertThat(small.size()).isEqualTo(1);
+        assertThat(small.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void entityProjectionIsNotCached() {
+        assertThatThrownBy(() -> cache.fetch(queryFactory.selectFrom(member)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void tupleWithEntityIsNotCached() { //Tuple 안의 영속 엔티티가 세션 사이에 공유되면 안 된다.
+        assertThatThrownBy(() -> cache.fetch(queryFactory.select(member.username, member.team).from(member)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void invalidateOncePerTransaction() {
+        cache.fetch(queryFactory.select(member.username).from(member));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                cache.invalidate(Member.class); //saveAll처럼 같은 타입이 반복해서 바뀐다.
+            }
+            assertThat(cache.getEvictions()).isEqualTo(1);
+
+            //커밋 전에 다른 트랜잭션(쓰레드)이 이전 값을 다시 캐시한다.
+            CompletableFuture.runAsync(() -> cache.fetch(queryFactory.select(member.username).from(member))).join();
+            assertThat(cache.size()).isEqualTo(1);
+        });
+
+        assertThat(cache.size()).isZero(); //커밋 후 한 번 더 버린다.
+        assertThat(cache.getEvictions()).isEqualTo(2);
+    }
+}
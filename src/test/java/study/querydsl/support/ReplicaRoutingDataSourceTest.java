@@ -0,0 +1,68 @@
+package study.querydsl.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:primary", "sa", "");
+    DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:replica", "sa", "");
+
+    @AfterEach
+    public void after() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void readOnlyTransactionGoesToReplica() throws SQLException {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, replica, Duration.ofSeconds(30));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(urlOf(dataSource)).isEqualTo("jdbc:h2:mem:replica");
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertThat(urlOf(dataSource)).isEqualTo("jdbc:h2:mem:primary");
+    }
+
+    @Test
+    public void primaryHintOverridesReadOnly() throws SQLException {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, replica, Duration.ofSeconds(30));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(ReplicaRoutingDataSource.onPrimary(() -> urlOfUnchecked(dataSource))).isEqualTo("jdbc:h2:mem:primary");
+        assertThat(urlOf(dataSource)).isEqualTo("jdbc:h2:mem:replica"); //범위 밖
+    }
+
+    @Test
+    public void fallbackToPrimaryWhenReplicaIsDown() throws SQLException {
+        DataSource deadReplica = new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/~/nowhere", "sa", "");
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, deadReplica, Duration.ofSeconds(30));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(urlOf(dataSource)).isEqualTo("jdbc:h2:mem:primary");
+        assertThat(dataSource.isReplicaAvailable()).isFalse();
+    }
+
+    private String urlOfUnchecked(DataSource dataSource) {
+        try {
+            return urlOf(dataSource);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String urlOf(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+}
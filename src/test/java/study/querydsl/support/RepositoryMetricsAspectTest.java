@@ -0,0 +1,93 @@
+package study.querydsl.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchCondition;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsAspectTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void recordsSpringDataRepositoryMethod() {
+        String method = "MemberRepository.serch";
+        long calls = timerCount(method);
+        long rowCalls = summaryCount("querydsl.repository.rows", method);
+        double rows = summaryTotal("querydsl.repository.rows", method);
+        double statements = summaryTotal("querydsl.repository.statements", method);
+
+        memberRepository.serch(new MemberSearchCondition());
+
+        //같은 컨텍스트의 다른 테스트도 같은 meter에 기록하므로 증가분으로 확인한다.
+        assertThat(timerCount(method)).isEqualTo(calls + 1);
+        assertThat(summaryCount("querydsl.repository.rows", method)).isEqualTo(rowCalls + 1);
+        assertThat(summaryTotal("querydsl.repository.rows", method) - rows).isEqualTo(2);
+        assertThat(summaryTotal("querydsl.repository.statements", method) - statements).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    public void recordsRepositoryClassMethod() {
+        long findByIdCalls = timerCount("MemberJpaRepository.findById");
+        long findByUsernameCalls = summaryCount("querydsl.repository.rows", "MemberRepository.findByUsername");
+
+        Member member = memberRepository.findByUsername("member1").get(0);
+        em.clear();
+        memberJpaRepository.findById(member.getId());
+
+        assertThat(timerCount("MemberJpaRepository.findById")).isEqualTo(findByIdCalls + 1);
+        assertThat(summaryCount("querydsl.repository.rows", "MemberRepository.findByUsername"))
+                .isEqualTo(findByUsernameCalls + 1);
+    }
+
+    //아직 기록된 적이 없으면 meter가 없다.
+    private long timerCount(String method) {
+        Timer timer = registry.find("querydsl.repository.query").tag("method", method).timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private long summaryCount(String name, String method) {
+        DistributionSummary summary = registry.find(name).tag("method", method).summary();
+        return summary != null ? summary.count() : 0;
+    }
+
+    private double summaryTotal(String name, String method) {
+        DistributionSummary summary = registry.find(name).tag("method", method).summary();
+        return summary != null ? summary.totalAmount() : 0;
+    }
+}